@@ -0,0 +1,104 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.List;
+
+import core.AvailabilityCalendar;
+import core.Chromosome;
+import core.Evaluator;
+import core.PopulationEvaluator;
+import core.ProblemInstance;
+import core.VectorEvaluator;
+
+/**
+ * 可用时间表的区段数对模拟速度的影响：在算例上生成不同数量的岸桥数变化和泊位关闭时段，
+ * 校验逐个模拟与向量化模拟结果一致，再分别计时
+ *
+ * 用法：java --add-modules jdk.incubator.vector -cp ... benchmark.CalendarBenchmark [算例文件] [染色体数] [轮数]
+ *
+ */
+public class CalendarBenchmark {
+
+    private static final int[] CHANGES = { 0, 10, 100, 1000 };// 岸桥数变化的次数
+    private static final int HORIZON = 3000;// 时间表覆盖的时间范围
+
+    public static void main(String[] args) throws IOException {
+
+        String path = args.length > 0 ? args[0] : ProblemInstance.DEFAULT_PATH;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 2048;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        ProblemInstance base = ProblemInstance.load(path);
+        List<Chromosome> chromosomes = EvaluatorBenchmark.randomChromosomes(base, size, 1);
+        boolean vectorSupported = VectorEvaluator.isSupported();
+
+        for (int changes : CHANGES) {
+            ProblemInstance instance = withCalendar(base, changes);
+            AvailabilityCalendar calendar = instance.getCalendar();
+
+            Evaluator scalar = new Evaluator(instance);
+            double[] expected = new double[size];
+            scalar.evaluate(chromosomes);
+            double time_sum = 0;
+            for (int i = 0; i < size; i++) {
+                expected[i] = chromosomes.get(i).getScore();
+                time_sum = time_sum + 1 / expected[i];
+            }
+            double scalarRate = rate(scalar, chromosomes, rounds);
+
+            String vectorText = "不支持";
+            if (vectorSupported) {
+                VectorEvaluator vector = new VectorEvaluator(instance);
+                vector.evaluate(chromosomes);
+                for (int i = 0; i < size; i++) {
+                    if (chromosomes.get(i).getScore() != expected[i]) {
+                        throw new IllegalStateException("区段数 " + calendar.getSegmentNum() + " 时第 " + i
+                                + " 个染色体的结果不一致：" + expected[i] + " / " + chromosomes.get(i).getScore());
+                    }
+                }
+                vectorText = String.format("%.0f 个/秒", rate(vector, chromosomes, rounds));
+            }
+
+            System.out.printf("区段数 %5d  平均在港时间 %.3fh  scalar %.0f 个/秒  vector %s%n", calendar.getSegmentNum(),
+                    time_sum / size, scalarRate, vectorText);
+        }
+    }
+
+    // 在[0, HORIZON)内均匀安排changes次岸桥数变化(在总岸桥数和总岸桥数-4之间交替)，每4次变化关闭一个泊位30个时间单位
+    static ProblemInstance withCalendar(ProblemInstance base, int changes) {
+        int berthNum = base.getBerthNum();
+        int craneTotal = base.getCraneTotal();
+
+        int[] craneTime = new int[changes];
+        int[] craneCount = new int[changes];
+        int closureNum = changes / 4;
+        int[] closedBerth = new int[closureNum];
+        int[] closedFrom = new int[closureNum];
+        int[] closedTo = new int[closureNum];
+
+        for (int i = 0; i < changes; i++) {
+            craneTime[i] = (int) ((long) HORIZON * (i + 1) / (changes + 1));
+            craneCount[i] = i % 2 == 0 && i < changes - 1 ? craneTotal - 4 : craneTotal;
+        }
+        for (int c = 0; c < closureNum; c++) {
+            closedBerth[c] = c % berthNum + 1;
+            closedFrom[c] = craneTime[c * 4];
+            closedTo[c] = closedFrom[c] + 30;
+        }
+
+        AvailabilityCalendar calendar = new AvailabilityCalendar(berthNum, craneTotal, craneTime, craneCount,
+                closedBerth, closedFrom, closedTo);
+        return new ProblemInstance(base.getCraneMax(), base.getTime_arrive(), base.getGoodsAmount(), berthNum,
+                craneTotal, calendar);
+    }
+
+    // 预热一轮后计时，返回每秒模拟的染色体数
+    private static double rate(PopulationEvaluator evaluator, List<Chromosome> chromosomes, int rounds) {
+        evaluator.evaluate(chromosomes);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            evaluator.evaluate(chromosomes);
+        }
+        return chromosomes.size() * rounds / ((System.nanoTime() - start) / 1e9);
+    }
+}
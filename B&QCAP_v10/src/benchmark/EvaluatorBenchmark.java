@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import core.Chromosome;
+import core.Evaluator;
+import core.ProblemInstance;
+import core.VectorEvaluator;
+
+/**
+ * 逐个模拟(Evaluator)与向量化批量模拟(VectorEvaluator)的对比：先校验两者结果一致，再分别计时
+ *
+ * 用法：java --add-modules jdk.incubator.vector -cp ... benchmark.EvaluatorBenchmark [算例文件] [染色体数] [轮数]
+ *
+ */
+public class EvaluatorBenchmark {
+
+    public static void main(String[] args) throws IOException {
+
+        String path = args.length > 0 ? args[0] : ProblemInstance.DEFAULT_PATH;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        ProblemInstance instance = ProblemInstance.load(path);
+        List<Chromosome> chromosomes = randomChromosomes(instance, size, 1);
+
+        Evaluator scalar = new Evaluator(instance);
+        if (!VectorEvaluator.isSupported()) {
+            System.out.println("当前CPU不支持向量化，只测试逐个模拟");
+            run("scalar", scalar::evaluate, chromosomes, rounds);
+            return;
+        }
+        VectorEvaluator vector = new VectorEvaluator(instance);
+
+        // 1.校验结果一致
+        double[] expected = new double[size];
+        scalar.evaluate(chromosomes);
+        for (int i = 0; i < size; i++) {
+            expected[i] = chromosomes.get(i).getScore();
+        }
+        vector.evaluate(chromosomes);
+        for (int i = 0; i < size; i++) {
+            if (chromosomes.get(i).getScore() != expected[i]) {
+                throw new IllegalStateException("第 " + i + " 个染色体的结果不一致：" + expected[i] + " / "
+                        + chromosomes.get(i).getScore());
+            }
+        }
+        System.out.println("结果一致，向量宽度：" + vector.getLanes());
+
+        // 2.计时
+        double scalarRate = run("scalar", scalar::evaluate, chromosomes, rounds);
+        double vectorRate = run("vector", vector::evaluate, chromosomes, rounds);
+        System.out.printf("加速比：%.2f%n", vectorRate / scalarRate);
+    }
+
+    // 预热一轮后计时，返回每秒模拟的染色体数
+    private static double run(String name, Consumer<List<Chromosome>> evaluator,
+            List<Chromosome> chromosomes, int rounds) {
+
+        evaluator.accept(chromosomes);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            evaluator.accept(chromosomes);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rate = chromosomes.size() * rounds / seconds;
+        System.out.printf("%s: %.0f 个/秒%n", name, rate);
+        return rate;
+    }
+
+    static List<Chromosome> randomChromosomes(ProblemInstance instance, int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Chromosome> chromosomes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            chromosomes.add(new Chromosome(instance.getShipNum(), instance.getBerthNum(), instance.getCraneMax(), random));
+        }
+        return chromosomes;
+    }
+}
@@ -0,0 +1,113 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import core.ProblemInstance;
+import core.service.OptimisationService;
+import core.service.ServiceClient;
+
+/**
+ * 优化服务的负载测试：在本进程内启动服务，多个客户端线程并发提交不同优先级的任务，部分任务提交后取消，
+ * 其余任务通过推送接口等待结束，统计吞吐量、各优先级的排队和完成时间
+ *
+ * 用法：java -cp ... benchmark.ServiceLoadTest [任务数] [客户端线程数] [求解线程数] [迭代代数]
+ *
+ */
+public class ServiceLoadTest {
+
+    private static final String[] SOLVERS = { "ga", "sa", "tabu" };
+    private static final int CANCEL_EVERY = 10;// 每隔该数量的任务取消一个
+
+    public static void main(String[] args) throws Exception {
+
+        int jobNum = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int budget = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        String text = ProblemInstance.loadDefault().format();
+
+        OptimisationService.warmup(50);
+        OptimisationService service = new OptimisationService(0, threads);
+        service.start();
+        ServiceClient client = new ServiceClient(service.getPort());
+        System.out.println("任务数：" + jobNum + " 客户端线程数：" + clients + " 求解线程数：" + threads + " 迭代代数：" + budget);
+
+        AtomicLong events = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<double[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int j = 0; j < jobNum; j++) {
+            int index = j;
+            results.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(index);
+                int priority = random.nextInt(3);
+                String query = "solver=" + SOLVERS[index % SOLVERS.length] + "&seed=" + index + "&budget=" + budget
+                        + "&priority=" + priority;
+
+                long submitted = System.nanoTime();
+                long id = client.submit(text, query);
+                if (index % CANCEL_EVERY == CANCEL_EVERY - 1) {
+                    client.cancel(id);
+                }
+                String last = client.watch(id, line -> events.incrementAndGet());
+                double elapsed = (System.nanoTime() - submitted) / 1e6;
+
+                String state = ServiceClient.field(last, "state");
+                String queued = ServiceClient.field(last, "queuedMillis");
+                // 优先级，状态(0完成 1取消 2失败)，提交到结束的时间，排队时间
+                return new double[] { priority, "DONE".equals(state) ? 0 : "CANCELLED".equals(state) ? 1 : 2, elapsed,
+                        queued != null ? Double.parseDouble(queued) : -1 };
+            }));
+        }
+
+        List<double[]> rows = new ArrayList<>();
+        for (Future<double[]> result : results) {
+            rows.add(result.get());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        service.stop();
+
+        int[] states = new int[3];
+        for (double[] row : rows) {
+            states[(int) row[1]]++;
+        }
+        System.out.printf("总时间 %.2fs  吞吐量 %.2f 任务/s  完成 %d 取消 %d 失败 %d  推送行数 %d%n", seconds,
+                states[0] / seconds, states[0], states[1], states[2], events.get());
+
+        for (int priority = 2; priority >= 0; priority--) {
+            List<Double> elapsed = new ArrayList<>();
+            List<Double> queued = new ArrayList<>();
+            for (double[] row : rows) {
+                if (row[0] == priority && row[1] == 0) {
+                    elapsed.add(row[2]);
+                    queued.add(row[3]);
+                }
+            }
+            if (elapsed.isEmpty()) {
+                continue;
+            }
+            System.out.printf("优先级 %d  任务数 %d  排队时间中位数 %.0fms  完成时间中位数 %.0fms  P95 %.0fms%n", priority,
+                    elapsed.size(), percentile(queued, 0.5), percentile(elapsed, 0.5), percentile(elapsed, 0.95));
+        }
+    }
+
+    private static double percentile(List<Double> values, double p) {
+        double[] sorted = new double[values.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = values.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+}
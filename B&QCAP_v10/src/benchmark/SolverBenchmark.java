@@ -0,0 +1,69 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import core.GeneticAlgorithm;
+import core.ProblemInstance;
+import core.Solver;
+
+/**
+ * 各求解器达到目标在港时间所需的时间和完整模拟次数(time-to-target)对比
+ *
+ * 用法：java -cp ... benchmark.SolverBenchmark [算例文件] [目标在港时间] [迭代代数] [重复次数]
+ *
+ */
+public class SolverBenchmark {
+
+    private static final String[] SOLVERS = { "ga", "ga-fixed", "sa", "tabu" };// ga-fixed为固定交叉率和变异率的遗传算法
+
+    public static void main(String[] args) throws IOException {
+
+        String path = args.length > 0 ? args[0] : ProblemInstance.DEFAULT_PATH;
+        double target = args.length > 1 ? Double.parseDouble(args[1]) : 12;
+        int budget = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        ProblemInstance instance = ProblemInstance.load(path);
+        System.out.println("目标在港时间：" + target + "h，迭代代数：" + budget + "，每个求解器重复 " + runs + " 次");
+
+        for (String name : SOLVERS) {
+            double[] millis = new double[runs];
+            double[] evaluations = new double[runs];
+            double[] best = new double[runs];
+            int reached = 0;
+
+            for (int run = 0; run < runs; run++) {
+                Solver solver;
+                if ("ga-fixed".equals(name)) {
+                    GeneticAlgorithm ga = new GeneticAlgorithm(instance, run + 1, budget);
+                    ga.setAdaptive(false);
+                    solver = ga;
+                } else {
+                    solver = Solver.create(name, instance, run + 1, budget);
+                }
+                solver.setVerbose(false);
+                solver.setTarget(target);
+
+                long start = System.nanoTime();
+                solver.start();
+                millis[run] = (System.nanoTime() - start) / 1e6;
+                evaluations[run] = solver.getEvaluations();
+                best[run] = 1 / solver.getOptimalChromosome().getScore();
+                if (best[run] <= target) {
+                    reached++;
+                }
+            }
+
+            System.out.printf("%-8s 达到目标 %d/%d  时间中位数 %.0fms  完整模拟次数中位数 %.0f  最好在港时间中位数 %.3fh%n",
+                    name, reached, runs, median(millis), median(evaluations), median(best));
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.List;
+
+import core.Chromosome;
+import core.Evaluator;
+import core.ProblemInstance;
+import core.worker.WorkerPoolEvaluator;
+
+/**
+ * 多进程计算(WorkerPoolEvaluator)与本进程逐个模拟的对比，并在中途终止一个计算进程，校验其批次被重新分配后结果仍然一致
+ *
+ * 用法：java -cp ... benchmark.WorkerPoolBenchmark [算例文件] [计算进程数] [染色体数] [轮数]
+ *
+ */
+public class WorkerPoolBenchmark {
+
+    public static void main(String[] args) throws IOException {
+
+        String path = args.length > 0 ? args[0] : ProblemInstance.DEFAULT_PATH;
+        int workerNum = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        ProblemInstance instance = ProblemInstance.load(path);
+        List<Chromosome> chromosomes = EvaluatorBenchmark.randomChromosomes(instance, size, 1);
+
+        Evaluator scalar = new Evaluator(instance);
+        double[] expected = new double[size];
+        long start = System.nanoTime();
+        scalar.evaluate(chromosomes);
+        System.out.printf("本进程: %.0f 个/秒%n", size / ((System.nanoTime() - start) / 1e9));
+        for (int i = 0; i < size; i++) {
+            expected[i] = chromosomes.get(i).getScore();
+        }
+
+        WorkerPoolEvaluator pool = new WorkerPoolEvaluator(instance, workerNum);
+        try {
+            pool.evaluate(chromosomes);// 预热
+            check(chromosomes, expected);
+
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                pool.evaluate(chromosomes);
+            }
+            System.out.printf("%d 个计算进程: %.0f 个/秒%n", pool.getWorkerNum(),
+                    size * rounds / ((System.nanoTime() - start) / 1e9));
+
+            // 终止一个计算进程后继续计算
+            ProcessHandle.current().children().findFirst().ifPresent(ProcessHandle::destroyForcibly);
+            reset(chromosomes);
+            pool.evaluate(chromosomes);
+            check(chromosomes, expected);
+            System.out.println("计算进程终止后结果一致，当前计算进程数：" + pool.getWorkerNum());
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static void reset(List<Chromosome> chromosomes) {
+        for (Chromosome chro : chromosomes) {
+            chro.setScore(0);
+        }
+    }
+
+    private static void check(List<Chromosome> chromosomes, double[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (chromosomes.get(i).getScore() != expected[i]) {
+                throw new IllegalStateException("第 " + i + " 个染色体的结果不一致：" + expected[i] + " / "
+                        + chromosomes.get(i).getScore());
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package core;
+
+/**
+ * 自适应参数控制：根据算子的成功率和种群多样性在线调整交叉率、变异率以及变异基因族(SO/SB/SC)的选择概率
+ *
+ * 基因族的选择概率采用自适应追踪(Adaptive Pursuit)策略：质量最好的基因族的概率向P_MAX靠拢，其余向P_MIN靠拢
+ *
+ * 交叉率和变异率按两个算子的成功率(子代优于基准的比例)的相对大小分配；成功率与改进幅度无关，
+ * 交叉每次改动的基因较多、改进幅度较大，按幅度比较时交叉率总是被推到上限
+ *
+ */
+public class AdaptiveParameter {
+
+    // 基因族编号，与变异操作中的random取值对应
+    public static final int FAMILY_ORDER = 0;// 靠泊顺序集 SO
+    public static final int FAMILY_BERTH = 1;// 靠泊泊位集 SB
+    public static final int FAMILY_CRANE = 2;// 分配岸桥集 SC
+    public static final int FAMILY_NUM = 3;
+
+    private static final double P_MIN = 0.1;// 每个基因族的最小选择概率
+    private static final double P_MAX = 1 - (FAMILY_NUM - 1) * P_MIN;// 每个基因族的最大选择概率
+    private static final double ALPHA = 0.3;// 质量估计的学习率
+    private static final double BETA = 0.3;// 概率追踪的学习率
+
+    private static final double CROSS_RATE_MIN = 0.5;// 交叉率下限
+    private static final double CROSS_RATE_MAX = 0.95;// 交叉率上限
+    private static final double MUTATION_RATE_MIN = 0.05;// 变异率下限
+    private static final double MUTATION_RATE_MAX = 0.4;// 变异率上限
+    private static final double DIVERSITY_LOW = 0.1;// 多样性低于该值视为种群趋于收敛
+
+    private double crossRate;// 当前交叉率
+    private double mutationRate;// 当前变异率
+
+    private double[] familyProbability = new double[FAMILY_NUM];// 基因族的选择概率
+    private double[] familyQuality = new double[FAMILY_NUM];// 基因族的质量估计
+    private double crossQuality;// 交叉算子成功率的估计
+    private double mutationQuality;// 变异算子成功率的估计
+
+    // 当代的累计回报，每代结束时调用update()清零
+    private double[] familyReward = new double[FAMILY_NUM];
+    private int[] familyCount = new int[FAMILY_NUM];
+    private int crossSuccess;// 交叉后优于基准的次数
+    private int crossCount;
+    private int mutationSuccess;// 变异后优于基准的次数
+
+    public AdaptiveParameter(double crossRate, double mutationRate) {
+        this.crossRate = crossRate;
+        this.mutationRate = mutationRate;
+        for (int i = 0; i < FAMILY_NUM; i++) {
+            familyProbability[i] = 1.0 / FAMILY_NUM;
+        }
+    }
+
+    // 按照选择概率以轮盘赌的方式选出一个基因族，random为[0,1)的随机数
+    public int chooseFamily(double random) {
+        double sum = 0;
+        for (int i = 0; i < FAMILY_NUM - 1; i++) {
+            sum = sum + familyProbability[i];
+            if (sum > random) {
+                return i;
+            }
+        }
+        return FAMILY_NUM - 1;
+    }
+
+    // 记录一次交叉的结果，parentScore为子代所在位置的父代的适应度值，childScore为交叉后(变异前)的适应度值
+    public void rewardCross(double parentScore, double childScore) {
+        if (childScore > parentScore) {
+            crossSuccess++;
+        }
+        crossCount++;
+    }
+
+    // 记录一次变异的结果，parentScore为变异前的适应度值：交叉产生的子代为交叉后的值，否则为父代的值
+    public void rewardMutation(int family, double parentScore, double childScore) {
+        familyReward[family] = familyReward[family] + reward(parentScore, childScore);
+        familyCount[family]++;
+        if (childScore > parentScore) {
+            mutationSuccess++;
+        }
+    }
+
+    // 回报为适应度值的相对提升，子代不优于父代则回报为0
+    private double reward(double parentScore, double childScore) {
+        if (parentScore <= 0 || childScore <= parentScore) {
+            return 0;
+        }
+        return (childScore - parentScore) / parentScore;
+    }
+
+    // 每代结束时更新参数，diversity为种群的基因型多样性(各基因位上与众数不同的染色体比例的平均值，取值[0, 1))
+    public void update(double diversity) {
+
+        // 1.自适应追踪更新基因族的选择概率，基因族之间按改进幅度比较
+        int mutationCount = 0;
+        for (int i = 0; i < FAMILY_NUM; i++) {
+            if (familyCount[i] > 0) {
+                familyQuality[i] = familyQuality[i] + ALPHA * (familyReward[i] / familyCount[i] - familyQuality[i]);
+            }
+            mutationCount = mutationCount + familyCount[i];
+        }
+
+        int best = 0;
+        for (int i = 1; i < FAMILY_NUM; i++) {
+            if (familyQuality[i] > familyQuality[best]) {
+                best = i;
+            }
+        }
+        for (int i = 0; i < FAMILY_NUM; i++) {
+            double target = i == best ? P_MAX : P_MIN;
+            familyProbability[i] = familyProbability[i] + BETA * (target - familyProbability[i]);
+        }
+
+        // 2.交叉率和变异率按成功率的比例在各自的上下限之间取值
+        if (crossCount > 0) {
+            crossQuality = crossQuality + ALPHA * ((double) crossSuccess / crossCount - crossQuality);
+        }
+        if (mutationCount > 0) {
+            mutationQuality = mutationQuality + ALPHA * ((double) mutationSuccess / mutationCount - mutationQuality);
+        }
+        double share = crossQuality + mutationQuality > 0 ? crossQuality / (crossQuality + mutationQuality) : 0.5;
+        double crossTarget = CROSS_RATE_MIN + (CROSS_RATE_MAX - CROSS_RATE_MIN) * share;
+        double mutationTarget = MUTATION_RATE_MIN + (MUTATION_RATE_MAX - MUTATION_RATE_MIN) * (1 - share);
+
+        // 3.种群趋于收敛时变异率提高到上限以增加多样性
+        if (diversity < DIVERSITY_LOW) {
+            mutationTarget = MUTATION_RATE_MAX;
+        }
+        crossRate = crossRate + BETA * (crossTarget - crossRate);
+        mutationRate = mutationRate + BETA * (mutationTarget - mutationRate);
+
+        // 清零当代的累计回报
+        for (int i = 0; i < FAMILY_NUM; i++) {
+            familyReward[i] = 0;
+            familyCount[i] = 0;
+        }
+        crossSuccess = 0;
+        crossCount = 0;
+        mutationSuccess = 0;
+    }
+
+    public double getCrossRate() {
+        return crossRate;
+    }
+
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    public double getFamilyProbability(int family) {
+        return familyProbability[family];
+    }
+}
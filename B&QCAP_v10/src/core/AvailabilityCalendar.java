@@ -0,0 +1,198 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * 码头资源的可用时间表：随时间变化的岸桥数(检修、换班)和泊位的关闭时段
+ *
+ * 所有变化时刻排序去重后把时间轴分成若干区段，每个区段内岸桥数和各泊位是否开放不变，
+ * 区段的起点、岸桥数和泊位开放情况按区段编号存放在一维数组中；模拟时时间单调递增，
+ * 用advance从上一次的区段向后移动，每个时间单位均摊O(1)，与区段数基本无关
+ *
+ * 泊位关闭只影响新船靠泊，已靠泊的船舶继续装卸；岸桥数减少时正在装卸的船舶不受影响，
+ * 剩余岸桥数为当前岸桥数减去已占用的岸桥数，小于船舶所需时等待
+ *
+ * 不可变，可以被多个线程同时使用
+ *
+ */
+public class AvailabilityCalendar {
+
+    private final int berthNum;// 泊位数
+
+    // 原始定义，用于输出算例
+    private final int[] craneTime;// 从craneTime[i]起岸桥数为craneCount[i]
+    private final int[] craneCount;
+    private final int[] closedBerth;// 泊位closedBerth[i](从1开始)在[closedFrom[i], closedTo[i])内关闭
+    private final int[] closedFrom;
+    private final int[] closedTo;
+
+    // 第s个区段为[segmentStart[s], segmentStart[s + 1])，segmentStart[0]为Integer.MIN_VALUE
+    private final int[] segmentStart;
+    private final int[] capacity;// 各区段的岸桥数
+    private final boolean[] berthOpen;// 下标为 区段编号 * berthNum + 泊位下标
+
+    public AvailabilityCalendar(int berthNum, int craneTotal, int[] craneTime, int[] craneCount, int[] closedBerth,
+            int[] closedFrom, int[] closedTo) {
+        if (berthNum < 1) {
+            throw new IllegalArgumentException("泊位数不能小于1：" + berthNum);
+        }
+        if (craneTime.length != craneCount.length || closedBerth.length != closedFrom.length
+                || closedBerth.length != closedTo.length) {
+            throw new IllegalArgumentException("时间表的数组长度不一致");
+        }
+        for (int i = 0; i < craneCount.length; i++) {
+            if (craneCount[i] < 0) {
+                throw new IllegalArgumentException("岸桥数不能为负：" + craneTime[i] + ":" + craneCount[i]);
+            }
+        }
+        for (int i = 0; i < closedBerth.length; i++) {
+            if (closedBerth[i] < 1 || closedBerth[i] > berthNum || closedFrom[i] >= closedTo[i]) {
+                throw new IllegalArgumentException(
+                        "泊位关闭时段错误：" + closedBerth[i] + ":" + closedFrom[i] + "-" + closedTo[i]);
+            }
+        }
+        this.berthNum = berthNum;
+        this.craneTime = craneTime;
+        this.craneCount = craneCount;
+        this.closedBerth = closedBerth;
+        this.closedFrom = closedFrom;
+        this.closedTo = closedTo;
+
+        // 1.所有变化时刻排序去重
+        int[] times = new int[craneTime.length + closedFrom.length * 2];
+        int n = 0;
+        for (int t : craneTime) {
+            times[n++] = t;
+        }
+        for (int i = 0; i < closedFrom.length; i++) {
+            times[n++] = closedFrom[i];
+            times[n++] = closedTo[i];
+        }
+        Arrays.sort(times);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || times[i] != times[unique - 1]) {
+                times[unique++] = times[i];
+            }
+        }
+
+        segmentStart = new int[unique + 1];
+        segmentStart[0] = Integer.MIN_VALUE;
+        System.arraycopy(times, 0, segmentStart, 1, unique);
+        capacity = new int[segmentStart.length];
+        berthOpen = new boolean[segmentStart.length * berthNum];
+
+        // 2.岸桥数：按时刻排序后逐段取最后一次生效的变化，同一时刻有多个变化时以后定义的为准
+        Integer[] changes = new Integer[craneTime.length];
+        for (int i = 0; i < changes.length; i++) {
+            changes[i] = i;
+        }
+        Arrays.sort(changes, (a, b) -> Integer.compare(craneTime[a], craneTime[b]));
+        int current = craneTotal;// 第一次变化前的岸桥数
+        int next = 0;
+        for (int s = 0; s < segmentStart.length; s++) {
+            while (next < changes.length && craneTime[changes[next]] <= segmentStart[s]) {
+                current = craneCount[changes[next++]];
+            }
+            capacity[s] = current;
+        }
+
+        // 3.泊位开放情况：把每个关闭时段覆盖的区段标记为关闭
+        Arrays.fill(berthOpen, true);
+        for (int i = 0; i < closedBerth.length; i++) {
+            for (int s = segmentOf(closedFrom[i]); s < segmentStart.length && segmentStart[s] < closedTo[i]; s++) {
+                berthOpen[s * berthNum + closedBerth[i] - 1] = false;
+            }
+        }
+    }
+
+    // 不随时间变化的时间表
+    public static AvailabilityCalendar constant(int berthNum, int craneTotal) {
+        return new AvailabilityCalendar(berthNum, craneTotal, new int[0], new int[0], new int[0], new int[0],
+                new int[0]);
+    }
+
+    // 时刻time所在的区段，二分查找
+    public int segmentOf(int time) {
+        int low = 0;
+        int high = segmentStart.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segmentStart[mid] <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // 从区段segment向后移动到时刻time所在的区段，time不减时均摊O(1)
+    public int advance(int segment, int time) {
+        while (segment + 1 < segmentStart.length && segmentStart[segment + 1] <= time) {
+            segment++;
+        }
+        return segment;
+    }
+
+    public int getCraneCapacity(int segment) {
+        return capacity[segment];
+    }
+
+    // berth为泊位下标，从0开始
+    public boolean isBerthOpen(int segment, int berth) {
+        return berthOpen[segment * berthNum + berth];
+    }
+
+    // [from, to)内可用的岸桥时间，即岸桥数对时间的积分
+    public double craneTime(int from, int to) {
+        double sum = 0;
+        for (int s = segmentOf(from); s < segmentStart.length && segmentStart[s] < to; s++) {
+            int start = Math.max(from, segmentStart[s]);
+            int end = s + 1 < segmentStart.length ? Math.min(to, segmentStart[s + 1]) : to;
+            if (end > start) {
+                sum = sum + (double) capacity[s] * (end - start);
+            }
+        }
+        return sum;
+    }
+
+    // 最后一次变化之后的岸桥数
+    public int getFinalCapacity() {
+        return capacity[capacity.length - 1];
+    }
+
+    public int getSegmentNum() {
+        return segmentStart.length;
+    }
+
+    public boolean isConstant() {
+        return segmentStart.length == 1;
+    }
+
+    // 按照算例文件格式输出 craneCalendar= 和 berthClosed= 两行，没有变化时为空串
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        if (craneTime.length > 0) {
+            sb.append("craneCalendar=");
+            for (int i = 0; i < craneTime.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(craneTime[i]).append(':').append(craneCount[i]);
+            }
+            sb.append('\n');
+        }
+        if (closedBerth.length > 0) {
+            sb.append("berthClosed=");
+            for (int i = 0; i < closedBerth.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(closedBerth[i]).append(':').append(closedFrom[i]).append('-').append(closedTo[i]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -1,5 +1,7 @@
 package core;
 
+import java.util.SplittableRandom;
+
 public class Chromosome {
     private int[] gene_shipOrder;// 基因序列1 -> 靠泊顺序集
     private int[] gene_shipBerth;// 基因序列2 -> 靠泊泊位集
@@ -8,10 +10,15 @@ public class Chromosome {
 
     // 按照基因序列长 -> 船舶数量构造Chromosome对象
     public Chromosome(int ship_num, int berth_num, int[] craneMax) {
+        this(ship_num, berth_num, craneMax, new SplittableRandom());
+    }
+
+    // 使用给定的随机数发生器构造，便于固定种子复现结果
+    public Chromosome(int ship_num, int berth_num, int[] craneMax, SplittableRandom random) {
         if (ship_num > 0) {
-            generateShipOrder(ship_num);
-            generateShipBerth(ship_num, berth_num);
-            generateShipCrane(ship_num, craneMax);
+            generateShipOrder(ship_num, random);
+            generateShipBerth(ship_num, berth_num, random);
+            generateShipCrane(ship_num, craneMax, random);
 
         } else {
             System.out.println("基因序列大小不能小于1！");
@@ -31,7 +38,7 @@ public class Chromosome {
     }
 
     // 初始化靠泊顺序集
-    private void generateShipOrder(int ship_num) {
+    private void generateShipOrder(int ship_num, SplittableRandom random) {
         this.gene_shipOrder = new int[ship_num];
 
         boolean[] array = new boolean[ship_num];// boolean[] array用于标识i是否已出现过
@@ -40,10 +47,10 @@ public class Chromosome {
         }
 
         for (int i = 0; i < ship_num; i++) {
-            int temp = ((int) (Math.random() * ship_num)) % ship_num;
+            int temp = ((int) (random.nextDouble() * ship_num)) % ship_num;
 
             while (array[temp]) {
-                temp = ((int) (Math.random() * ship_num)) % ship_num;
+                temp = ((int) (random.nextDouble() * ship_num)) % ship_num;
             }
 
             gene_shipOrder[i] = temp + 1;
@@ -53,19 +60,19 @@ public class Chromosome {
     }
 
     // 初始化靠泊泊位集
-    private void generateShipBerth(int ship_num, int berth_num) {
+    private void generateShipBerth(int ship_num, int berth_num, SplittableRandom random) {
         this.gene_shipBerth = new int[ship_num];
         for (int i = 0; i < ship_num; i++) {
-            int temp = (int) (Math.random() * berth_num + 1);
+            int temp = (int) (random.nextDouble() * berth_num + 1);
             gene_shipBerth[i] = temp;
         }
     }
 
     // 初始化分配岸桥集
-    private void generateShipCrane(int ship_num, int[] craneMax) {
+    private void generateShipCrane(int ship_num, int[] craneMax, SplittableRandom random) {
         this.gene_shipCrane = new int[ship_num];
         for (int i = 0; i < ship_num; i++) {
-            int temp = (int) (Math.random() * craneMax[i] + 1);
+            int temp = (int) (random.nextDouble() * craneMax[i] + 1);
             gene_shipCrane[i] = temp;
         }
     }
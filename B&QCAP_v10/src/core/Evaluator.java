@@ -0,0 +1,188 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * 染色体适应度值的计算：按时间单位逐步模拟船舶靠泊、等待岸桥和装卸的过程，得到平均在港时间
+ *
+ * 同一次模拟也可以输出目标向量(均为越小越好)：平均在港时间、最长等待时间(开始装卸 - 到港)、
+ * 完工时间(第一艘船到港至最后一艘船离港)、岸桥空闲率(1 - 装卸占用的岸桥时间 / 完工时间内可用的岸桥时间)
+ *
+ * 岸桥数和泊位开放情况按算例的AvailabilityCalendar随时间变化
+ *
+ * 只读取算例数据，不保存模拟的中间状态，可以被多个线程同时使用
+ *
+ */
+public class Evaluator implements PopulationEvaluator {
+
+    public static final double CRANE_EFFICIENCY = 0.55;// 岸桥工作效率
+
+    // 目标向量的分量
+    public static final int OBJECTIVE_TURNAROUND = 0;// 平均在港时间(h)
+    public static final int OBJECTIVE_WAIT_MAX = 1;// 最长等待时间(h)
+    public static final int OBJECTIVE_MAKESPAN = 2;// 完工时间(h)
+    public static final int OBJECTIVE_CRANE_IDLE = 3;// 岸桥空闲率
+    public static final int OBJECTIVE_NUM = 4;
+
+    private final ProblemInstance instance;
+    private final int shipNum;// 船舶数
+    private final int berthNum;// 泊位数
+    private final AvailabilityCalendar calendar;// 岸桥数和泊位的可用时间表
+
+    public Evaluator(ProblemInstance instance) {
+        this.instance = instance;
+        this.shipNum = instance.getShipNum();
+        this.berthNum = instance.getBerthNum();
+        this.calendar = instance.getCalendar();
+    }
+
+    @Override
+    public void evaluate(List<Chromosome> chromosomes) {
+        for (Chromosome chro : chromosomes) {
+            evaluate(chro);
+        }
+    }
+
+    // 计算染色体的适应度值
+    public void evaluate(Chromosome chro) {
+        double score = evaluate(chro.getGene_shipOrder(), chro.getGene_shipBerth(), chro.getGene_shipCrane());
+        chro.setScore(1 / score);// 平均在港时间的倒数为适应度函数值
+    }
+
+    // 模拟靠泊和装卸过程，返回平均在港时间(h)
+    public double evaluate(int[] gene_shipOrder, int[] gene_shipBerth, int[] gene_shipCrane) {
+        double[] objectives = new double[OBJECTIVE_NUM];
+        objectives(gene_shipOrder, gene_shipBerth, gene_shipCrane, objectives, 0);
+        return objectives[OBJECTIVE_TURNAROUND];
+    }
+
+    // 计算染色体的目标向量，写入out[offset, offset + OBJECTIVE_NUM)，同时设置适应度值
+    public void objectives(Chromosome chro, double[] out, int offset) {
+        objectives(chro.getGene_shipOrder(), chro.getGene_shipBerth(), chro.getGene_shipCrane(), out, offset);
+        chro.setScore(1 / out[offset + OBJECTIVE_TURNAROUND]);
+    }
+
+    // 模拟靠泊和装卸过程，把目标向量写入out[offset, offset + OBJECTIVE_NUM)
+    public void objectives(int[] gene_shipOrder, int[] gene_shipBerth, int[] gene_shipCrane, double[] out,
+            int offset) {
+
+        List<Integer> ships_waitBerth = new ArrayList<>();// 等待泊位的船舶集合 -> 编号，但是集合中存的是数组下标index
+        List<Integer> ships_waitCrane = new ArrayList<>();// 等待岸桥的船舶集合 -> 编号， 用作 -缓冲-
+        Map<Integer, Boolean> ships_service = new HashMap<>();// 服务队列的船舶集合
+
+        int unitTime = 0;// 单位时间
+        int craneUsed = 0;// 已占用的岸桥数
+        int segment = 0;// 当前时间所在的时间表区段
+        boolean[] berth_free = new boolean[berthNum];// 泊位空闲情况
+
+        double[] goodsAmount = new double[shipNum];
+        int[] time_arrive = instance.getTime_arrive();
+        int[] goodsAmount_temp = instance.getGoodsAmount();
+
+        for (int i = 0; i < shipNum; i++) {
+            goodsAmount[i] = goodsAmount_temp[i] + 0.0;
+        }
+
+        int[] time_leave = new int[shipNum];// 离港时间
+        int[] time_start = new int[shipNum];// 开始装卸的时间
+        for (int i = 0; i < shipNum; i++) {
+            time_leave[i] = -1;
+        }
+
+        for (int i = 0; i < berthNum; i++) {
+            berth_free[i] = true;
+        }
+        // 初始时所有船舶都在等待泊位队列
+        for (int i = 0; i < gene_shipOrder.length; i++) {
+            ships_waitBerth.add(i);
+        }
+
+        int order = 1;
+        int k = -1;// 按顺序找到对应数组中的位置，即哪艘船
+        while (((ships_waitBerth.size() != 0) || (ships_waitCrane.size() != 0) || (ships_service.size() != 0))) {
+
+            segment = calendar.advance(segment, unitTime);
+
+            if (ships_waitBerth.size() != 0) {
+                // 找到当前靠泊顺序对应的数组下标
+                for (int i = 0; i < gene_shipOrder.length; i++) {
+                    if (gene_shipOrder[i] == order) {
+                        k = i;
+                        break;
+                    }
+                }
+
+                // 若泊位空闲且开放，且该船已经到达才让其移入等待岸桥队列
+                if (berth_free[gene_shipBerth[k] - 1] && time_arrive[k] <= unitTime
+                        && calendar.isBerthOpen(segment, gene_shipBerth[k] - 1)) {
+                    // 设置泊位为忙碌
+                    berth_free[gene_shipBerth[k] - 1] = false;
+                    ships_waitBerth.remove((Integer) k);
+                    ships_waitCrane.add(k);
+
+                    order++;
+                }
+            }
+
+            // 更新剩余装箱量 -> 当前剩余岸桥>等待岸桥集合的第一个船舶所需的岸桥数，则将等待岸桥队列的前列移入服务队列
+            // 剩余岸桥数为当前时段的岸桥数 - 已占用的岸桥数
+            while (ships_waitCrane.size() > 0
+                    && calendar.getCraneCapacity(segment) - craneUsed >= gene_shipCrane[ships_waitCrane.get(0)]) {
+                craneUsed = craneUsed + gene_shipCrane[ships_waitCrane.get(0)];
+                time_start[ships_waitCrane.get(0)] = unitTime;
+                ships_service.put(ships_waitCrane.remove(0), false);
+            }
+
+            for (Integer i : ships_service.keySet()) {
+
+                // 单位时间内，剩余装箱量随时间减少，规模为分配的岸桥数 * 岸桥工作效率
+                goodsAmount[i] = goodsAmount[i] - gene_shipCrane[i] * CRANE_EFFICIENCY;
+
+                // 若剩余装箱量 <= 0，说明完成了任务，从服务队列中删除此船
+                if (goodsAmount[i] <= 0) {
+                    // 更新离港时间 -> 这时候还没运行到start()中的unitTime++，但此时已经过了1个单位时间
+                    time_leave[i] = unitTime + 1;// 所以unitTime + 1才是真实离港时间
+                    craneUsed = craneUsed - gene_shipCrane[i];// 释放岸桥
+                    berth_free[gene_shipBerth[i] - 1] = true;// 更新空闲泊位
+                    ships_service.replace(i, true);
+                }
+            }
+
+            // Iterator遍历器遍历Map，删除元素
+            Iterator<Entry<Integer, Boolean>> iterator = ships_service.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry<Integer, Boolean> entry = iterator.next();
+                if (entry.getValue()) {
+                    iterator.remove();
+                }
+            }
+            unitTime++;
+        }
+
+        double sum = 0;
+        int waitMax = 0;
+        int firstArrive = Integer.MAX_VALUE;
+        int lastLeave = 0;
+        double craneBusy = 0;// 装卸占用的岸桥时间
+        for (int i = 0; i < time_leave.length; i++) {
+            // 在港时间为离港时间-到港时间
+            sum = sum + (time_leave[i] - time_arrive[i]);
+            waitMax = Math.max(waitMax, time_start[i] - time_arrive[i]);
+            firstArrive = Math.min(firstArrive, time_arrive[i]);
+            lastLeave = Math.max(lastLeave, time_leave[i]);
+            craneBusy = craneBusy + (double) gene_shipCrane[i] * (time_leave[i] - time_start[i]);
+        }
+        int makespan = lastLeave - firstArrive;
+
+        out[offset + OBJECTIVE_TURNAROUND] = sum / shipNum / 60;
+        out[offset + OBJECTIVE_WAIT_MAX] = waitMax / 60.0;
+        out[offset + OBJECTIVE_MAKESPAN] = makespan / 60.0;
+        double craneAvailable = calendar.craneTime(firstArrive, lastLeave);
+        out[offset + OBJECTIVE_CRANE_IDLE] = craneAvailable > 0 ? 1 - craneBusy / craneAvailable : 0;
+    }
+}
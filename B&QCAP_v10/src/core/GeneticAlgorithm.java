@@ -1,20 +1,15 @@
 package core;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.Map.Entry;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * 模拟遗传算法的过程，求解船舶在港时间的数学模型
@@ -22,25 +17,45 @@ import java.util.Map.Entry;
  * @author dinghj
  *
  */
-public class GeneticAlgorithm {
+public class GeneticAlgorithm implements Solver {
 
     // 遗传算法相关参数
-    private static final int ITERATION_MAX = 5000;// 最大种群迭代代数
-    private static final int POPULATION_SIZE = 80;// 种群大小
-    private static final double CROSS_RATE = 0.8;// 交叉率
-    private static final double MUTATION_RATE = 0.1;// 变异率
+    public static final int ITERATION_MAX = 5000;// 默认最大种群迭代代数
+    public static final int POPULATION_SIZE = 80;// 种群大小
+    private static final double CROSS_RATE = 0.8;// 初始交叉率
+    private static final double MUTATION_RATE = 0.1;// 初始变异率
+    private static final double SCREEN_RATE = 0.3;// 使用代理模型时，完整模拟的子代比例
+    private static final int RECALIBRATE_INTERVAL = 20;// 使用代理模型时，每隔该代数完整模拟全部子代以校准模型
 
     // 泊位岸桥分配问题相关参数
-    private static final int[] craneMax = loadFileToArray("craneMax");// 能接受的最大岸桥数
-    private static final int SHIP_NUM = craneMax.length;// 船舶数
-    private static final int BERTH_NUM = 4;// 泊位数
-    private static final double CRANE_EFFICIENCY = 0.55;// 岸桥工作效率
     private static final int INF = 10000;// 无限大的值
 
+    private final ProblemInstance instance;// 算例
+    private final int[] craneMax;// 能接受的最大岸桥数
+    private final int shipNum;// 船舶数
+    private final int berthNum;// 泊位数
+    private final int iterationMax;// 最大种群迭代代数
+    private final long seed;// 随机种子
+    private final SplittableRandom random;// 随机数发生器，固定种子时结果可复现
+    private PopulationEvaluator evaluator;// 种群适应度值的计算方式
+    private boolean evaluatorFixed;// 是否由setEvaluator指定了计算方式
+    private final Evaluator scalarEvaluator;// 并行遗传时在各任务内计算适应度值
+    private final Neighbourhood neighbourhood;// 交叉和变异操作
+    private int threads;// 并行遗传的线程数，0表示按选择、交叉、变异的顺序串行遗传
+    private Surrogate surrogate;// 代理模型，为null时不筛选子代
+    private boolean adaptive = true;// 是否在线调整交叉率、变异率和基因族选择概率，false时固定为初始值
+    private long evaluations;// 完整模拟的次数
+    private boolean verbose = true;// 是否打印每一代的种群信息
+    private double target;// 目标在港时间，达到后提前结束，0表示不设目标
+    private volatile boolean cancelled;// 是否被请求提前结束
+    private ProgressListener progressListener;// 最优解改进时的回调
+    private Chromosome reportedChromosome;// 最近一次回调的最优解
+
     private int generation;// 当前遗传代数
     private double bestScore;// 一次迭代中种群中的最好适应度值
     private double worstScore;// 一次迭代中种群中的最差适应度值
     private double time_average;// 染色体的平均在港时间的平均
+    private double diversity;// 种群的基因型多样性，见genotypeDiversity()
 
     private double optimalScore = 0;// 遗传过程中的最好适应度值
     private int optimalGeneraion;// 遗传过程中最优解所在的遗传代数
@@ -48,36 +63,85 @@ public class GeneticAlgorithm {
 
     private List<Chromosome> population = new ArrayList<>();// 种群
 
+    // 自适应参数控制，在线调整交叉率、变异率和变异基因族的选择概率
+    private AdaptiveParameter adaptiveParameter = new AdaptiveParameter(CROSS_RATE, MUTATION_RATE);
+    private double[] score_parent;// 种群中每个位置的染色体在遗传前的父代适应度值，交叉和变异都以此为基准
+    private boolean[] crossed;// 种群中每个位置的染色体是否由交叉产生
+    private int[] mutatedFamily;// 种群中每个位置的染色体变异的基因族，-1表示未变异
+    private Chromosome[] parent;// 种群中每个位置的染色体的父代，子代被代理模型筛掉时恢复为父代
+    private Chromosome[] premutation;// 交叉后又变异的子代在变异前的染色体，与子代一起模拟，用于单独统计变异的效果
+
     private Map<Integer, Double> bestMap = new HashMap<>();// 保存最好值数据的哈希表
     private Map<Integer, Double> averageMap = new HashMap<>();// 保存平均值数据的哈希表
     private Map<Integer, Double> worstMap = new HashMap<>();// 保存最差值数据的哈希表
 
+    // 从默认算例文件构造，种子随机
+    public GeneticAlgorithm() {
+        this(loadDefaultInstance(), new SplittableRandom().nextLong(), ITERATION_MAX);
+    }
+
+    public GeneticAlgorithm(ProblemInstance instance, long seed, int iterationMax) {
+        this.instance = instance;
+        this.craneMax = instance.getCraneMax();
+        this.shipNum = instance.getShipNum();
+        this.berthNum = instance.getBerthNum();
+        this.iterationMax = iterationMax;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.evaluator = PopulationEvaluator.create(instance);
+        this.scalarEvaluator = new Evaluator(instance);
+        this.neighbourhood = new Neighbourhood(instance);
+    }
+
+    private static ProblemInstance loadDefaultInstance() {
+        try {
+            return ProblemInstance.loadDefault();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
     public void start() {
 
         // 1.初始化
         init();
         printCurrentGeneration();
+        reportProgress();
 
-        while (generation < ITERATION_MAX) {
+        ForkJoinPool breedingPool = threads > 0 ? new ForkJoinPool(threads) : null;
+        try {
+            while (generation < iterationMax && !(target > 0 && 1 / optimalScore <= target) && !cancelled) {
 
-            generation++;
-            choose();// 2.选择
-            cross();// 3.交叉
-            mutation();// 4.变异
+                generation++;
+                if (breedingPool != null) {
+                    breed(breedingPool);// 2-4.并行遗传，每对子代的选择、交叉、变异和适应度计算在同一个任务中完成
+                } else {
+                    choose();// 2.选择
+                    cross();// 3.交叉
+                    mutation();// 4.变异
 
-            for (Chromosome chro : population) {
-                setChromosomeScore(chro);// 遗传完成后设置新的适应度值
-            }
+                    evaluateOffspring();// 遗传完成后设置新的适应度值
+                }
 
-            calculatePopulationScore();// 5.计算新种群的适应度值
-            printCurrentGeneration();
+                calculatePopulationScore();// 5.计算新种群的适应度值
+                updateAdaptiveParameter();// 6.根据算子成功率和种群多样性调整参数
+                printCurrentGeneration();
+                reportProgress();
+            }
+        } finally {
+            if (breedingPool != null) {
+                breedingPool.shutdown();
+            }
         }
 
-        System.out.println("最后一代种群中最优的染色体：");
-        System.out.println("SO:" + Arrays.toString(optimalChromosome.getGene_shipOrder()));
-        System.out.println("SB:" + Arrays.toString(optimalChromosome.getGene_shipBerth()));
-        System.out.println("SC:" + Arrays.toString(optimalChromosome.getGene_shipCrane()));
-        System.out.println("平均在港时间：" + 1 / optimalChromosome.getScore());
+        if (verbose) {
+            System.out.println("最后一代种群中最优的染色体：");
+            System.out.println("SO:" + Arrays.toString(optimalChromosome.getGene_shipOrder()));
+            System.out.println("SB:" + Arrays.toString(optimalChromosome.getGene_shipBerth()));
+            System.out.println("SC:" + Arrays.toString(optimalChromosome.getGene_shipCrane()));
+            System.out.println("平均在港时间：" + 1 / optimalChromosome.getScore());
+        }
     }
 
     // 1.初始化
@@ -85,10 +149,10 @@ public class GeneticAlgorithm {
         generation = 1;
 
         for (int i = 0; i < POPULATION_SIZE; i++) {
-            Chromosome chro = new Chromosome(SHIP_NUM, BERTH_NUM, craneMax);
-            setChromosomeScore(chro);
+            Chromosome chro = new Chromosome(shipNum, berthNum, craneMax, random);
             population.add(chro);
         }
+        evaluate(population);
         calculatePopulationScore();// 计算种群的适应度值
     }
 
@@ -110,488 +174,502 @@ public class GeneticAlgorithm {
     // 3.交叉
     private void cross() {
         List<Chromosome> population_new = new ArrayList<>();
+        List<Double> parentScores = new ArrayList<>();
+        List<Boolean> crossFlags = new ArrayList<>();
+        List<Chromosome> parents = new ArrayList<>();
 
         while (population_new.size() < POPULATION_SIZE) {
 
-            int loc1 = (int) (Math.random() * POPULATION_SIZE);
-            int loc2 = (int) (Math.random() * POPULATION_SIZE);
+            int loc1 = (int) (random.nextDouble() * POPULATION_SIZE);
+            int loc2 = (int) (random.nextDouble() * POPULATION_SIZE);
 
             while (loc1 == loc2) {
-                loc1 = (int) (Math.random() * POPULATION_SIZE);
-                loc2 = (int) (Math.random() * POPULATION_SIZE);
+                loc1 = (int) (random.nextDouble() * POPULATION_SIZE);
+                loc2 = (int) (random.nextDouble() * POPULATION_SIZE);
             }
 
             Chromosome father = population.get(loc1);
             Chromosome mother = population.get(loc2);
 
-            double rate = Math.random();
-            if (rate <= CROSS_RATE) {
+            double rate = random.nextDouble();
+            if (rate <= adaptiveParameter.getCrossRate()) {
 
-                List<Chromosome> children_temp = crossChromosome(father, mother);
+                List<Chromosome> children_temp = neighbourhood.cross(father, mother, random);
                 if (children_temp != null) {
                     population_new.addAll(children_temp);
+
+                    // 子代与所在位置的父代比较，与未交叉的位置使用相同的基准
+                    parentScores.add(father.getScore());
+                    parentScores.add(mother.getScore());
+                    crossFlags.add(true);
+                    crossFlags.add(true);
+                    parents.add(father);
+                    parents.add(mother);
                 }
             } else {
                 population_new.add(father);
                 population_new.add(mother);
+                parentScores.add(father.getScore());
+                parentScores.add(mother.getScore());
+                crossFlags.add(false);
+                crossFlags.add(false);
+                parents.add(father);
+                parents.add(mother);
             }
         }
         // 用新种群替代旧种群
         population = population_new;
+
+        int size = population.size();
+        score_parent = new double[size];
+        crossed = new boolean[size];
+        mutatedFamily = new int[size];
+        parent = parents.toArray(new Chromosome[size]);
+        premutation = new Chromosome[size];
+        for (int i = 0; i < size; i++) {
+            score_parent[i] = parentScores.get(i);
+            crossed[i] = crossFlags.get(i);
+            mutatedFamily[i] = -1;
+        }
     }
 
     // 4.变异
     private void mutation() {
 
-        for (Chromosome chro : population) {
-            if (Math.random() <= MUTATION_RATE) {
-                int random = (int) (Math.random() * 3); // 生成随机数，随机变异一个子染色体的基因值
-                if (random == 0) {
-
-                    // 1.变异gene_shipOrder -> 用两个位置上的数交换来模拟变异
-                    int loc1 = ((int) (Math.random() * SHIP_NUM)) % SHIP_NUM;// 变异位置1
-                    int loc2 = ((int) (Math.random() * SHIP_NUM)) % SHIP_NUM;// 变异位置2
-
-                    int[] gene_shipOrder = chro.getGene_shipOrder();
-                    int temp = gene_shipOrder[loc1];
-                    gene_shipOrder[loc1] = gene_shipOrder[loc2];
-                    gene_shipOrder[loc2] = temp;
-
-                } else if (random == 1) {
-
-                    // 2.变异gene_shipBerth
-                    int loc = ((int) (Math.random() * SHIP_NUM)) % SHIP_NUM;// 变异的位置
-
-                    int[] gene_shipBerth = chro.getGene_shipBerth();
-                    int temp = (int) (Math.random() * BERTH_NUM + 1);
-                    while (temp == gene_shipBerth[loc]) {
-                        temp = (int) (Math.random() * BERTH_NUM + 1);
-                    }
-                    gene_shipBerth[loc] = temp;
-
-                } else if (random == 2) {
-
-                    // 3.变异gene_shipCrane
-                    int loc = ((int) (Math.random() * SHIP_NUM)) % SHIP_NUM;
-
-                    int[] gene_shipCrane = chro.getGene_shipCrane();
-                    int temp = (int) (Math.random() * craneMax[loc] + 1);
-                    while (temp == gene_shipCrane[loc]) {
-                        temp = (int) (Math.random() * craneMax[loc] + 1);
-                    }
-                    gene_shipCrane[loc] = temp;
+        for (int index = 0; index < population.size(); index++) {
+            if (random.nextDouble() <= adaptiveParameter.getMutationRate()) {
+
+                // 选择后的种群中同一染色体可能出现多次，变异前先复制，避免影响其他位置的染色体
+                // 交叉产生的子代保留变异前的染色体，用于分别统计交叉和变异的效果
+                Chromosome chro = Neighbourhood.copy(population.get(index));
+                if (adaptive && crossed[index]) {
+                    premutation[index] = population.get(index);
                 }
+                population.set(index, chro);
+
+                int family = adaptiveParameter.chooseFamily(random.nextDouble()); // 按自适应概率选择变异的子染色体
+                mutatedFamily[index] = family;
+                neighbourhood.mutate(chro, family, random);
             }
         }
     }
 
-    // 5.计算种群适应度
-    private void calculatePopulationScore() {
+    // 2-4.并行遗传：种群按对划分为独立的任务，每个任务用自己的随机数发生器完成选择、交叉、变异，写入新种群的固定位置
+    // 随机数发生器的种子只由随机种子、代数和对的编号决定，结果与线程数和调度顺序无关
+    private void breed(ForkJoinPool breedingPool) {
 
-        // 采用和选择排序相似的方法
-        bestScore = 0;
-        worstScore = INF;
-        double time_total = 0;
-        time_average = 0;
+        // 轮盘赌的累积适应度值，各任务只读
+        double[] cumulative = new double[population.size()];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum = sum + population.get(i).getScore();
+            cumulative[i] = sum;
+        }
 
-        for (Chromosome chro : population) {
+        int size = POPULATION_SIZE;
+        Chromosome[] population_new = new Chromosome[size];
+        score_parent = new double[size];
+        crossed = new boolean[size];
+        mutatedFamily = new int[size];
+        parent = new Chromosome[size];
+        premutation = new Chromosome[size];
+
+        // 使用代理模型或指定了计算方式时，适应度值在所有任务完成后统一计算
+        boolean evaluateInTask = surrogate == null && !evaluatorFixed;
+        double crossRate = adaptiveParameter.getCrossRate();
+        double mutationRate = adaptiveParameter.getMutationRate();
+
+        breedingPool.submit(() -> IntStream.range(0, size / 2).parallel().forEach(
+                pair -> breedPair(pair, cumulative, crossRate, mutationRate, population_new, evaluateInTask)))
+                .join();
+
+        population = new ArrayList<>(Arrays.asList(population_new));
+        if (evaluateInTask) {
+            for (int i = 0; i < size; i++) {
+                if (crossed[i] || mutatedFamily[i] != -1) {
+                    evaluations++;
+                }
+                if (premutation[i] != null) {
+                    evaluations++;
+                }
+            }
+        } else {
+            evaluateOffspring();
+        }
+    }
 
-            time_total = time_total + 1 / chro.getScore();
+    // 产生第pair对子代，写入population_new[2 * pair]和population_new[2 * pair + 1]
+    private void breedPair(int pair, double[] cumulative, double crossRate, double mutationRate,
+            Chromosome[] population_new, boolean evaluateInTask) {
 
-            if (chro.getScore() > bestScore) {
-                bestScore = chro.getScore();// 设置最好适应度值
-            }
+        SplittableRandom random = new SplittableRandom(mix64(mix64(mix64(seed) + generation) + pair));
 
-            if (chro.getScore() > optimalScore) {
-                optimalScore = chro.getScore();// 遗传过程中的最优解
-                optimalGeneraion = generation;
-                optimalChromosome = chro;
+        // 1.选择两个不同位置的父代
+        int loc1 = chooseIndex(cumulative, random);
+        int loc2 = chooseIndex(cumulative, random);
+        while (loc1 == loc2) {
+            loc2 = chooseIndex(cumulative, random);
+        }
+        Chromosome father = population.get(loc1);
+        Chromosome mother = population.get(loc2);
+
+        // 2.交叉
+        List<Chromosome> children = null;
+        if (random.nextDouble() <= crossRate) {
+            children = neighbourhood.cross(father, mother, random);
+        }
+        boolean isCrossed = children != null;
+
+        for (int c = 0; c < 2; c++) {
+            int slot = 2 * pair + c;
+            Chromosome origin = c == 0 ? father : mother;
+            Chromosome chro = isCrossed ? children.get(c) : origin;
+
+            // 3.变异，先复制；交叉产生的子代保留变异前的染色体
+            int family = -1;
+            Chromosome before = null;
+            if (random.nextDouble() <= mutationRate) {
+                if (adaptive && isCrossed) {
+                    before = chro;
+                }
+                chro = Neighbourhood.copy(chro);
+                family = adaptiveParameter.chooseFamily(random.nextDouble());
+                neighbourhood.mutate(chro, family, random);
             }
 
-            if (chro.getScore() < worstScore) {
-                worstScore = chro.getScore();// 设置最差适应度值
+            // 4.计算适应度值
+            if (evaluateInTask && (isCrossed || family != -1)) {
+                scalarEvaluator.evaluate(chro);
+                if (before != null) {
+                    scalarEvaluator.evaluate(before);
+                }
             }
+
+            population_new[slot] = chro;
+            premutation[slot] = before;
+            score_parent[slot] = origin.getScore();
+            crossed[slot] = isCrossed;
+            mutatedFamily[slot] = family;
+            parent[slot] = origin;
         }
+    }
 
-        time_average = time_total / POPULATION_SIZE;
+    // SplitMix64的终结函数：种子按(随机种子, 代数, 对的编号)逐层混合，相邻的代或对得到互不相关的随机数序列
+    // 不能直接线性组合，SplittableRandom每次取数状态增加固定的步长，线性组合的种子会使各代的序列只差若干次取数
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
 
-        if (generation % 5 == 0) {
-            bestMap.put(generation, 1 / bestScore);
-            averageMap.put(generation, time_average);
-            worstMap.put(generation, 1 / worstScore);
+    // 轮盘赌选择，返回种群中的位置
+    private static int chooseIndex(double[] cumulative, SplittableRandom random) {
+        double slice = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, slice);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            index++;// 恰好等于累积值时取下一个
         }
+        return Math.min(index, cumulative.length - 1);
     }
 
-    // 选择准备 -> 轮盘赌算法选择
-    private Chromosome chooseChromosome() {
+    // 计算遗传后新产生的染色体的适应度值，未交叉也未变异的染色体沿用原来的值
+    private void evaluateOffspring() {
 
-        double totalScore = 0;
-        for (Chromosome chro : population) {
-            totalScore = totalScore + chro.getScore();
+        List<Chromosome> offspring = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();// 子代在种群中的位置
+        for (int i = 0; i < population.size(); i++) {
+            if (crossed[i] || mutatedFamily[i] != -1) {
+                offspring.add(population.get(i));
+                slots.add(i);
+            }
         }
+        int n = offspring.size();
 
-        double[] probability = new double[POPULATION_SIZE];// 每个染色体的选择概率
-        for (int i = 0; i < POPULATION_SIZE; i++) {
-            probability[i] = population.get(i).getScore() / totalScore;
+        if (surrogate == null) {
+            evaluateSlots(slots);
+            return;
         }
 
-        double slice = Math.random();
-        double sum = 0;// 累积概率
-
-        for (int i = 0; i < POPULATION_SIZE; i++) {
-            sum = sum + probability[i];
-            if (sum > slice) {
-                return population.get(i);
+        double[] predicted = new double[n];
+        if (surrogate.isReady()) {
+            for (int i = 0; i < n; i++) {
+                predicted[i] = surrogate.predict(offspring.get(i));
             }
         }
-        return null;
-    }
 
-    // 交叉准备 -> 1.复制染色体，复制一个新的对象而非对象的引用
-    private Chromosome copy(Chromosome chro) {
+        if (!surrogate.isReady() || generation % RECALIBRATE_INTERVAL == 0) {
+            // 代理模型未就绪或需要校准时，全部子代完整模拟，精度只在这时统计，避免筛选带来的偏差
+            evaluateSlots(slots);
+            if (surrogate.isReady()) {
+                recordSurrogateAccuracy(offspring, predicted);
+            }
+        } else {
+            // 按预测的在港时间从小到大排序，只完整模拟前SCREEN_RATE比例的子代，其余位置恢复为父代
+            Integer[] rank = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                rank[i] = i;
+            }
+            Arrays.sort(rank, (a, b) -> Double.compare(predicted[a], predicted[b]));
+
+            int keep = (int) Math.ceil(n * SCREEN_RATE);
+            List<Chromosome> promising = new ArrayList<>();
+            List<Integer> promisingSlots = new ArrayList<>();
+            for (int r = 0; r < n; r++) {
+                int i = rank[r];
+                if (r < keep) {
+                    promising.add(offspring.get(i));
+                    promisingSlots.add(slots.get(i));
+                } else {
+                    // 恢复为父代的位置不算作算子的一次使用，清除标记，避免按0回报统计
+                    int slot = slots.get(i);
+                    population.set(slot, parent[slot]);
+                    crossed[slot] = false;
+                    mutatedFamily[slot] = -1;
+                    premutation[slot] = null;
+                }
+            }
+            surrogate.addScreened(n - keep);
 
-        if (chro == null || chro.getGene_shipOrder() == null || chro.getGene_shipBerth() == null
-                || chro.getGene_shipCrane() == null) {
-            return null;
+            evaluateSlots(promisingSlots);
+            offspring = promising;
         }
 
-        Chromosome copy = new Chromosome();
-
-        int[] gene_shipOrder = chro.getGene_shipOrder();
-        int[] gene_shipBerth = chro.getGene_shipBerth();
-        int[] gene_shipCrane = chro.getGene_shipCrane();
-
-        int[] order = new int[SHIP_NUM];
-        int[] berth = new int[SHIP_NUM];
-        int[] crane = new int[SHIP_NUM];
-
-        for (int i = 0; i < SHIP_NUM; i++) {
-            order[i] = gene_shipOrder[i];
-            berth[i] = gene_shipBerth[i];
-            crane[i] = gene_shipCrane[i];
+        for (Chromosome chro : offspring) {
+            surrogate.add(chro);
         }
-
-        copy.setGene_shipOrder(order);
-        copy.setGene_shipBerth(berth);
-        copy.setGene_shipCrane(crane);
-
-        return copy;
     }
 
-    // 交叉准备 -> 2.两点交叉
-    private List<Chromosome> crossChromosome(Chromosome father, Chromosome mother) {
-
-        if (father == null || mother == null) {
-            return null;
-        }
-        if (father.getGene_shipOrder() == null || father.getGene_shipBerth() == null
-                || father.getGene_shipCrane() == null) {
-            return null;
-        }
-        if (mother.getGene_shipOrder() == null || mother.getGene_shipBerth() == null
-                || mother.getGene_shipCrane() == null) {
-            return null;
+    // 完整模拟slots位置上的子代，交叉后又变异的子代连同变异前的染色体一起模拟
+    private void evaluateSlots(List<Integer> slots) {
+        List<Chromosome> chromosomes = new ArrayList<>();
+        for (int slot : slots) {
+            chromosomes.add(population.get(slot));
+            if (premutation[slot] != null) {
+                chromosomes.add(premutation[slot]);
+            }
         }
+        evaluate(chromosomes);
+    }
 
-        Chromosome chro1 = copy(father);
-        Chromosome chro2 = copy(mother);
-
-        // 两点交叉：从left到right的位置上发生交叉
-        int a = (int) (Math.random() * SHIP_NUM);
-        int b = (int) (Math.random() * SHIP_NUM);
-        int left = a > b ? b : a;
-        int right = a > b ? a : b;
-
-        int[] gene_shipOrder1 = chro1.getGene_shipOrder();
-        int[] gene_shipBerth1 = chro1.getGene_shipBerth();
-        int[] gene_shipCrane1 = chro1.getGene_shipCrane();
-
-        int[] gene_shipOrder2 = chro2.getGene_shipOrder();
-        int[] gene_shipBerth2 = chro2.getGene_shipBerth();
-        int[] gene_shipCrane2 = chro2.getGene_shipCrane();
-
-        for (int i = left; i <= right; i++) {
-
-            // 1.交叉gene_shipOrder[]
-            int tempOrder = gene_shipOrder1[i];
-            gene_shipOrder1[i] = gene_shipOrder2[i];
-            gene_shipOrder2[i] = tempOrder;
-
-            // 2.交叉gene_shipBerth[]
-            int tempBerth = gene_shipBerth1[i];
-            gene_shipBerth1[i] = gene_shipBerth2[i];
-            gene_shipBerth2[i] = tempBerth;
-
-            // 3.交叉gene_shipCrane
-            int tempCrane = gene_shipCrane1[i];
-            gene_shipCrane1[i] = gene_shipCrane2[i];
-            gene_shipCrane2[i] = tempCrane;
+    private void recordSurrogateAccuracy(List<Chromosome> chromosomes, double[] predicted) {
+        double[] actual = new double[chromosomes.size()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = 1 / chromosomes.get(i).getScore();
         }
+        surrogate.recordAccuracy(predicted, actual, actual.length);
+    }
 
-        // 判断交叉后是否符合约束条件
-        // 1.靠泊顺序不能重复 -> 利用Set不重复的特性判断顺序编号是否重复
-        Set<Integer> setOrder1 = new HashSet<>();
-        Set<Integer> setOrder2 = new HashSet<>();
-        for (int i = 0; i < SHIP_NUM; i++) {
-            setOrder1.add(gene_shipOrder1[i]);
-            setOrder2.add(gene_shipOrder2[i]);
+    // 完整模拟计算适应度值
+    private void evaluate(List<Chromosome> chromosomes) {
+        if (!chromosomes.isEmpty()) {
+            evaluator.evaluate(chromosomes);
+            evaluations = evaluations + chromosomes.size();
         }
+    }
 
-        // 对交叉后的染色体编码实行交换策略
-        int m, n;// m,n用于定位交叉区域外的重复编号的位置
-        boolean already;// 标识是否已经找到重复编号
-        while (setOrder1.size() != SHIP_NUM || setOrder2.size() != SHIP_NUM) {
-            m = n = -1;// m,n重新置-1
-            already = false;// already重新置false
+    // 5.计算种群适应度
+    private void calculatePopulationScore() {
 
-            for (int i = left; i <= right; i++) {
-                for (int j = 0; j < left; j++) {
-                    if (gene_shipOrder1[i] == gene_shipOrder1[j]) {
-                        m = j;
-                        already = true;
-                        break;
-                    }
-                }
-                if (!already) {
-                    for (int j = right + 1; j < SHIP_NUM; j++) {
-                        if (gene_shipOrder1[i] == gene_shipOrder1[j]) {
-                            m = j;
-                            already = true;
-                            break;
-                        }
-                    }
-                }
-                if (already) {
-                    break;
-                }
-            }
-            already = false;// already重新置false
-
-            for (int i = left; i <= right; i++) {
-                for (int j = 0; j < left; j++) {
-                    if (gene_shipOrder2[i] == gene_shipOrder2[j]) {
-                        n = j;
-                        already = true;
-                        break;
-                    }
-                }
-                if (!already) {
-                    for (int j = right + 1; j < SHIP_NUM; j++) {
-                        if (gene_shipOrder2[i] == gene_shipOrder2[j]) {
-                            n = j;
-                            already = true;
-                            break;
-                        }
-                    }
-                }
-                if (already) {
-                    break;
-                }
-            }
+        // 采用和选择排序相似的方法
+        bestScore = 0;
+        worstScore = INF;
+        double time_total = 0;
+        time_average = 0;
 
-            if (m != -1 && n != -1) {
-                // m和n都不等于-1时才进行交换，将m和n所在位置的SO/SB/SC都进行交换
-                int temp = gene_shipOrder1[m];
-                gene_shipOrder1[m] = gene_shipOrder2[n];
-                gene_shipOrder2[n] = temp;
+        for (Chromosome chro : population) {
 
-                temp = gene_shipBerth1[m];
-                gene_shipBerth1[m] = gene_shipBerth2[n];
-                gene_shipBerth2[n] = temp;
+            time_total = time_total + 1 / chro.getScore();
 
-                temp = gene_shipCrane1[m];
-                gene_shipCrane1[m] = gene_shipCrane2[n];
-                gene_shipCrane2[n] = temp;
+            if (chro.getScore() > bestScore) {
+                bestScore = chro.getScore();// 设置最好适应度值
             }
 
-            // 向集合中重新添加元素
-            setOrder1.clear();
-            setOrder2.clear();
-            for (int i = 0; i < SHIP_NUM; i++) {
-                setOrder1.add(gene_shipOrder1[i]);
-                setOrder2.add(gene_shipOrder2[i]);
+            if (chro.getScore() > optimalScore) {
+                optimalScore = chro.getScore();// 遗传过程中的最优解
+                optimalGeneraion = generation;
+                optimalChromosome = chro;
             }
-        }
 
-        // 2.分配的岸桥不能大于最大可接受岸桥 -> 若大于则分配岸桥改为最大可接受岸桥数
-        for (int i = 0; i < SHIP_NUM; i++) {
-            if (gene_shipCrane1[i] > craneMax[i]) {
-                gene_shipCrane1[i] = craneMax[i];
-            }
-            if (gene_shipCrane2[i] > craneMax[i]) {
-                gene_shipCrane2[i] = craneMax[i];
+            if (chro.getScore() < worstScore) {
+                worstScore = chro.getScore();// 设置最差适应度值
             }
         }
 
-        List<Chromosome> listForReturn = new ArrayList<>();
-        listForReturn.add(chro1);
-        listForReturn.add(chro2);
-        return listForReturn;
-    }
-
-    // 计算染色体的适应度值
-    private void setChromosomeScore(Chromosome chro) {
-
-        List<Integer> ships_waitBerth = new ArrayList<>();// 等待泊位的船舶集合 -> 编号，但是集合中存的是数组下标index
-        List<Integer> ships_waitCrane = new ArrayList<>();// 等待岸桥的船舶集合 -> 编号， 用作 -缓冲-
-        Map<Integer, Boolean> ships_service = new HashMap<>();// 服务队列的船舶集合
-
-        int[] gene_shipOrder = chro.getGene_shipOrder();
-        int[] gene_shipBerth = chro.getGene_shipBerth();
-        int[] gene_shipCrane = chro.getGene_shipCrane();
-
-        int unitTime = 0;// 单位时间
-        int craneTotal = 16;// 总岸桥数16
-        boolean[] berth_free = new boolean[BERTH_NUM];// 泊位空闲情况
-
-        double[] goodsAmount = new double[SHIP_NUM];
-        int[] time_arrive = loadFileToArray("time_arrive");
-        int[] goodsAmount_temp = loadFileToArray("goodsAmount");
+        time_average = time_total / POPULATION_SIZE;
+        diversity = genotypeDiversity();
 
-        for (int i = 0; i < SHIP_NUM; i++) {
-            goodsAmount[i] = goodsAmount_temp[i] + 0.0;
+        if (generation % 5 == 0) {
+            bestMap.put(generation, 1 / bestScore);
+            averageMap.put(generation, time_average);
+            worstMap.put(generation, 1 / worstScore);
         }
+    }
 
-        int[] time_leave = new int[SHIP_NUM];// 离港时间
-        for (int i = 0; i < SHIP_NUM; i++) {
-            time_leave[i] = -1;
+    // 基因型多样性：每个基因位置上与该位置众数不同的染色体比例，对所有位置和三个基因族取平均
+    // 0表示种群中所有染色体相同；轮盘赌选择下适应度值的差距始终较大，不能反映种群是否收敛
+    private double genotypeDiversity() {
+        int size = population.size();
+        int valueMax = Math.max(shipNum, berthNum);
+        for (int c : craneMax) {
+            valueMax = Math.max(valueMax, c);
         }
+        int[] count = new int[valueMax + 1];
 
-        for (int i = 0; i < BERTH_NUM; i++) {
-            berth_free[i] = true;
-        }
-        // 初始时所有船舶都在等待泊位队列
-        for (int i = 0; i < gene_shipOrder.length; i++) {
-            ships_waitBerth.add(i);
+        double sum = 0;
+        for (int family = 0; family < AdaptiveParameter.FAMILY_NUM; family++) {
+            for (int i = 0; i < shipNum; i++) {
+                Arrays.fill(count, 0);
+                int mode = 0;
+                for (Chromosome chro : population) {
+                    int value = genes(chro, family)[i];
+                    count[value]++;
+                    mode = Math.max(mode, count[value]);
+                }
+                sum = sum + (size - mode) / (double) size;
+            }
         }
+        return sum / (AdaptiveParameter.FAMILY_NUM * shipNum);
+    }
 
-        int order = 1;
-        int k = -1;// 按顺序找到对应数组中的位置，即哪艘船
-        while (((ships_waitBerth.size() != 0) || (ships_waitCrane.size() != 0) || (ships_service.size() != 0))) {
-
-            if (ships_waitBerth.size() != 0) {
-                // 找到当前靠泊顺序对应的数组下标
-                for (int i = 0; i < gene_shipOrder.length; i++) {
-                    if (gene_shipOrder[i] == order) {
-                        k = i;
-                        break;
-                    }
-                }
+    private static int[] genes(Chromosome chro, int family) {
+        if (family == AdaptiveParameter.FAMILY_ORDER) {
+            return chro.getGene_shipOrder();
+        } else if (family == AdaptiveParameter.FAMILY_BERTH) {
+            return chro.getGene_shipBerth();
+        }
+        return chro.getGene_shipCrane();
+    }
 
-                // 若泊位空闲，且该船已经到达才让其移入等待岸桥队列
-                if (berth_free[gene_shipBerth[k] - 1] && time_arrive[k] <= unitTime) {
-                    // 设置泊位为忙碌
-                    berth_free[gene_shipBerth[k] - 1] = false;
-                    ships_waitBerth.remove((Integer) k);
-                    ships_waitCrane.add(k);
+    // 6.统计本代各算子的成功情况，并根据种群多样性更新交叉率、变异率和基因族选择概率
+    private void updateAdaptiveParameter() {
+        if (!adaptive) {
+            return;
+        }
 
-                    order++;
-                }
+        // 两个算子都以所在位置的父代为基准；交叉后又变异的子代，交叉按变异前的值统计，变异以变异前的值为基准
+        for (int i = 0; i < population.size(); i++) {
+            double score = population.get(i).getScore();
+            double crossedScore = premutation[i] != null ? premutation[i].getScore() : score;
+            if (crossed[i]) {
+                adaptiveParameter.rewardCross(score_parent[i], crossedScore);
             }
-
-            // 更新剩余装箱量 -> 当前剩余岸桥>等待岸桥集合的第一个船舶所需的岸桥数，则将等待岸桥队列的前列移入服务队列
-            while (ships_waitCrane.size() > 0 && craneTotal >= gene_shipCrane[ships_waitCrane.get(0)]) {
-                craneTotal = craneTotal - gene_shipCrane[ships_waitCrane.get(0)];
-                ships_service.put(ships_waitCrane.remove(0), false);
+            if (mutatedFamily[i] != -1) {
+                adaptiveParameter.rewardMutation(mutatedFamily[i], crossed[i] ? crossedScore : score_parent[i],
+                        score);
             }
+        }
+        adaptiveParameter.update(diversity);
+    }
 
-            for (Integer i : ships_service.keySet()) {
+    // 选择准备 -> 轮盘赌算法选择
+    private Chromosome chooseChromosome() {
 
-                // 单位时间内，剩余装箱量随时间减少，规模为分配的岸桥数 * 岸桥工作效率
-                goodsAmount[i] = goodsAmount[i] - gene_shipCrane[i] * CRANE_EFFICIENCY;
+        double totalScore = 0;
+        for (Chromosome chro : population) {
+            totalScore = totalScore + chro.getScore();
+        }
 
-                // 若剩余装箱量 <= 0，说明完成了任务，从服务队列中删除此船
-                if (goodsAmount[i] <= 0) {
-                    // 更新离港时间 -> 这时候还没运行到start()中的unitTime++，但此时已经过了1个单位时间
-                    time_leave[i] = unitTime + 1;// 所以unitTime + 1才是真实离港时间
-                    craneTotal = craneTotal + gene_shipCrane[i];// 更新总岸桥数
-                    berth_free[gene_shipBerth[i] - 1] = true;// 更新空闲泊位
-                    ships_service.replace(i, true);
-                }
-            }
+        double[] probability = new double[POPULATION_SIZE];// 每个染色体的选择概率
+        for (int i = 0; i < POPULATION_SIZE; i++) {
+            probability[i] = population.get(i).getScore() / totalScore;
+        }
 
-            // Iterator遍历器遍历Map，删除元素
-            Iterator<Entry<Integer, Boolean>> iterator = ships_service.entrySet().iterator();
-            while (iterator.hasNext()) {
-                Entry<Integer, Boolean> entry = iterator.next();
-                if (entry.getValue()) {
-                    iterator.remove();
-                }
+        double slice = random.nextDouble();
+        double sum = 0;// 累积概率
+
+        for (int i = 0; i < POPULATION_SIZE; i++) {
+            sum = sum + probability[i];
+            if (sum > slice) {
+                return population.get(i);
             }
-            unitTime++;
         }
+        return null;
+    }
 
-        double sum = 0;
-        for (int i = 0; i < time_leave.length; i++) {
-            // 在港时间为离港时间-到港时间
-            sum = sum + (time_leave[i] - time_arrive[i]);
+    // 最优解改进时回调
+    private void reportProgress() {
+        if (progressListener != null && optimalChromosome != reportedChromosome) {
+            reportedChromosome = optimalChromosome;
+            progressListener.progress(evaluations, optimalChromosome);
         }
-
-        double score = sum / SHIP_NUM / 60;
-        chro.setScore(1 / score);// 平均在港时间的倒数为适应度函数值
     }
 
     // 打印当前的种群目标值和其他因素
     private void printCurrentGeneration() {
 
+        if (!verbose) {
+            return;
+        }
+
         System.out.println("当前遗传代数：" + generation);
         System.out.println("最好时间：" + 1 / bestScore);
         System.out.println("最差时间：" + 1 / worstScore);
         System.out.println("平均时间：" + time_average);
+        System.out.println("交叉率：" + adaptiveParameter.getCrossRate() + " 变异率：" + adaptiveParameter.getMutationRate()
+                + " 基因型多样性：" + diversity);
+        System.out.println("完整模拟次数：" + evaluations);
+        if (surrogate != null && surrogate.isReady()) {
+            System.out.println("代理模型 平均绝对误差：" + surrogate.getMeanAbsoluteError() + "h 排序一致率："
+                    + surrogate.getRankAccuracy() + " 已筛掉子代：" + surrogate.getScreened());
+        }
         System.out.println("遗传过程中最好适应度值出现在第 " + optimalGeneraion + " 代");
         System.out.println("遗传过程中最小在港时间:" + (1 / optimalScore) + "h");
         System.out.println("-----------------------------------------");
     }
 
-    // 加载文件
-    private static int[] loadFileToArray(String str) {
+    @Override
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
 
-        try {
-            // 用缓冲流按行读取数据
-            FileInputStream fis = new FileInputStream(new File("src/core/data"));
-            BufferedReader br = new BufferedReader(new InputStreamReader(fis, StandardCharsets.UTF_8));
+    public void setEvaluator(PopulationEvaluator evaluator) {
+        this.evaluator = evaluator;
+        this.evaluatorFixed = true;
+    }
 
-            // 1. line -> craneMax
-            String line = br.readLine();
-            String[] temp1 = line.trim().split(",");
+    // 并行遗传的线程数，0表示串行遗传
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
 
-            int[] craneMax_temp = new int[temp1.length];
-            for (int i = 0; i < temp1.length; i++) {
-                craneMax_temp[i] = Integer.parseInt(temp1[i]);
-            }
+    // 是否用代理模型筛选子代
+    public void setSurrogate(boolean enabled) {
+        this.surrogate = enabled ? new Surrogate(instance) : null;
+    }
 
-            // 2. line -> time_arrive
-            line = br.readLine();
-            String[] temp2 = line.trim().split(",");
+    // 是否自适应调整参数，关闭时交叉率和变异率固定为CROSS_RATE和MUTATION_RATE，用于对比
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
 
-            int[] time_arrive_temp = new int[temp2.length];
-            for (int i = 0; i < temp2.length; i++) {
-                time_arrive_temp[i] = Integer.parseInt(temp2[i]);
-            }
+    public Surrogate getSurrogate() {
+        return surrogate;
+    }
 
-            // 3. line -> goodsAmount
-            line = br.readLine();
-            String[] temp3 = line.trim().split(",");
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+    }
 
-            int[] goodsAmount_temp = new int[temp3.length];
-            for (int i = 0; i < temp3.length; i++) {
-                goodsAmount_temp[i] = Integer.parseInt(temp3[i]);
-            }
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
 
-            br.close();
+    @Override
+    public void setTarget(double target) {
+        this.target = target;
+    }
 
-            // 按照传进来的参数返回对应的数组
-            if ("craneMax".equals((str))) {
-                return craneMax_temp;
-            } else if ("time_arrive".equals(str)) {
-                return time_arrive_temp;
-            } else if ("goodsAmount".equals(str)) {
-                return goodsAmount_temp;
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return null;
+    @Override
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public ProblemInstance getInstance() {
+        return instance;
     }
 
     public Map<Integer, Double> getBestMap() {
@@ -606,6 +684,11 @@ public class GeneticAlgorithm {
         return worstMap;
     }
 
+    @Override
+    public Chromosome getOptimalChromosome() {
+        return optimalChromosome;
+    }
+
     public int[] getOptimalChromosomeShipOrder() {
         return optimalChromosome.getGene_shipOrder();
     }
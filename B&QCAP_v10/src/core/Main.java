@@ -0,0 +1,186 @@
+package core;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import core.worker.WorkerPoolEvaluator;
+
+/**
+ * 无界面的命令行入口，不加载AWT/Swing，适合脚本和定时任务调用
+ *
+ * 用法：java -jar bqcap-core.jar [--instance 算例文件] [--seed 随机种子] [--budget 迭代代数] [--output 输出文件|-]
+ * [--solver ga|sa|tabu|nsga2] [--target 目标在港时间] [--workers 计算进程数] [--threads 并行遗传线程数] [--surrogate] [--verbose]
+ *
+ * --workers、--threads、--surrogate只对遗传算法有效
+ *
+ * 输出为逗号分隔的文本：S/SO/SB/SC四行对应最优染色体，TIME行为平均在港时间(h)；
+ * nsga2另外输出Pareto前沿，每个解一行 PARETO,序号,平均在港时间,最长等待时间,完工时间,岸桥空闲率 和三行 PSO/PSB/PSC,序号,基因
+ *
+ */
+public class Main {
+
+    public static void main(String[] args) {
+
+        String instancePath = ProblemInstance.DEFAULT_PATH;
+        long seed = System.nanoTime();
+        int budget = GeneticAlgorithm.ITERATION_MAX;
+        String output = "-";
+        String solverName = "ga";
+        double target = 0;
+        int workers = 0;
+        int threads = 0;
+        boolean surrogate = false;
+        boolean verbose = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--instance":
+                    instancePath = value(args, ++i);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value(args, ++i));
+                    break;
+                case "--budget":
+                    budget = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--output":
+                    output = value(args, ++i);
+                    break;
+                case "--solver":
+                    solverName = value(args, ++i);
+                    break;
+                case "--target":
+                    target = Double.parseDouble(value(args, ++i));
+                    break;
+                case "--workers":
+                    workers = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--surrogate":
+                    surrogate = true;
+                    break;
+                case "--verbose":
+                    verbose = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        try {
+            ProblemInstance instance = ProblemInstance.load(instancePath);
+
+            Solver solver = Solver.create(solverName, instance, seed, budget);
+            solver.setVerbose(verbose);
+            solver.setTarget(target);
+
+            WorkerPoolEvaluator evaluator = null;
+            if (solver instanceof GeneticAlgorithm) {
+                GeneticAlgorithm geneticAlgorithm = (GeneticAlgorithm) solver;
+                geneticAlgorithm.setSurrogate(surrogate);
+                geneticAlgorithm.setThreads(threads);
+                if (workers > 0) {
+                    // 适应度值由多个计算进程计算
+                    evaluator = new WorkerPoolEvaluator(instance, workers);
+                    geneticAlgorithm.setEvaluator(evaluator);
+                }
+            }
+            try {
+                solver.start();
+            } finally {
+                if (evaluator != null) {
+                    evaluator.close();
+                }
+            }
+
+            writePlan(solver, output);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("参数 " + args[i - 1] + " 缺少取值");
+        }
+        return args[i];
+    }
+
+    private static void usage() {
+        System.err.println("用法：java -jar bqcap-core.jar [--instance 算例文件] [--seed 随机种子] [--budget 迭代代数]"
+                + " [--output 输出文件|-] [--solver ga|sa|tabu|nsga2] [--target 目标在港时间] [--workers 计算进程数]"
+                + " [--threads 并行遗传线程数] [--surrogate] [--verbose]");
+    }
+
+    // 输出最优解和Pareto前沿，output为"-"时输出到标准输出
+    private static void writePlan(Solver solver, String output) throws IOException {
+
+        Chromosome chro = solver.getOptimalChromosome();
+
+        Writer writer = "-".equals(output) ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8);
+
+        PrintWriter pw = new PrintWriter(writer);
+        int[] gene_shipOrder = chro.getGene_shipOrder();
+
+        StringBuilder ships = new StringBuilder("S");
+        for (int i = 0; i < gene_shipOrder.length; i++) {
+            ships.append(',').append(i + 1);
+        }
+        pw.println(ships);
+        pw.println(join("SO", gene_shipOrder));
+        pw.println(join("SB", chro.getGene_shipBerth()));
+        pw.println(join("SC", chro.getGene_shipCrane()));
+        pw.println("TIME," + 1 / chro.getScore());
+
+        if (solver instanceof Nsga2) {
+            List<Chromosome> front = ((Nsga2) solver).getParetoFront();
+            double[] objectives = ((Nsga2) solver).getParetoObjectives();
+            for (int p = 0; p < front.size(); p++) {
+                StringBuilder line = new StringBuilder("PARETO,").append(p + 1);
+                for (int m = 0; m < Evaluator.OBJECTIVE_NUM; m++) {
+                    line.append(',').append(objectives[p * Evaluator.OBJECTIVE_NUM + m]);
+                }
+                pw.println(line);
+                pw.println(join("PSO," + (p + 1), front.get(p).getGene_shipOrder()));
+                pw.println(join("PSB," + (p + 1), front.get(p).getGene_shipBerth()));
+                pw.println(join("PSC," + (p + 1), front.get(p).getGene_shipCrane()));
+            }
+        }
+
+        boolean error = pw.checkError();
+        if (!"-".equals(output)) {
+            pw.close();
+        }
+        if (error) {
+            throw new IOException("写入结果失败：" + output);
+        }
+    }
+
+    private static String join(String name, int[] array) {
+        StringBuilder sb = new StringBuilder(name);
+        for (int value : array) {
+            sb.append(',').append(value);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,252 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * 染色体的邻域操作：复制、两点交叉和单个基因族的变异，供遗传算法、NSGA-II以及模拟退火、禁忌搜索的邻域移动共用
+ *
+ */
+public class Neighbourhood {
+
+    private final int[] craneMax;// 能接受的最大岸桥数
+    private final int shipNum;// 船舶数
+    private final int berthNum;// 泊位数
+
+    public Neighbourhood(ProblemInstance instance) {
+        this.craneMax = instance.getCraneMax();
+        this.shipNum = instance.getShipNum();
+        this.berthNum = instance.getBerthNum();
+    }
+
+    // 复制染色体，复制一个新的对象而非对象的引用
+    public static Chromosome copy(Chromosome chro) {
+
+        if (chro == null || chro.getGene_shipOrder() == null || chro.getGene_shipBerth() == null
+                || chro.getGene_shipCrane() == null) {
+            return null;
+        }
+
+        Chromosome copy = new Chromosome();
+
+        int[] gene_shipOrder = chro.getGene_shipOrder();
+        int[] gene_shipBerth = chro.getGene_shipBerth();
+        int[] gene_shipCrane = chro.getGene_shipCrane();
+
+        int shipNum = gene_shipOrder.length;
+        int[] order = new int[shipNum];
+        int[] berth = new int[shipNum];
+        int[] crane = new int[shipNum];
+
+        for (int i = 0; i < shipNum; i++) {
+            order[i] = gene_shipOrder[i];
+            berth[i] = gene_shipBerth[i];
+            crane[i] = gene_shipCrane[i];
+        }
+
+        copy.setGene_shipOrder(order);
+        copy.setGene_shipBerth(berth);
+        copy.setGene_shipCrane(crane);
+
+        return copy;
+    }
+
+    // 两点交叉，返回两个子代，父代不变
+    public List<Chromosome> cross(Chromosome father, Chromosome mother, SplittableRandom random) {
+
+        if (father == null || mother == null) {
+            return null;
+        }
+        if (father.getGene_shipOrder() == null || father.getGene_shipBerth() == null
+                || father.getGene_shipCrane() == null) {
+            return null;
+        }
+        if (mother.getGene_shipOrder() == null || mother.getGene_shipBerth() == null
+                || mother.getGene_shipCrane() == null) {
+            return null;
+        }
+
+        Chromosome chro1 = copy(father);
+        Chromosome chro2 = copy(mother);
+
+        // 两点交叉：从left到right的位置上发生交叉
+        int a = (int) (random.nextDouble() * shipNum);
+        int b = (int) (random.nextDouble() * shipNum);
+        int left = a > b ? b : a;
+        int right = a > b ? a : b;
+
+        int[] gene_shipOrder1 = chro1.getGene_shipOrder();
+        int[] gene_shipBerth1 = chro1.getGene_shipBerth();
+        int[] gene_shipCrane1 = chro1.getGene_shipCrane();
+
+        int[] gene_shipOrder2 = chro2.getGene_shipOrder();
+        int[] gene_shipBerth2 = chro2.getGene_shipBerth();
+        int[] gene_shipCrane2 = chro2.getGene_shipCrane();
+
+        for (int i = left; i <= right; i++) {
+
+            // 1.交叉gene_shipOrder[]
+            int tempOrder = gene_shipOrder1[i];
+            gene_shipOrder1[i] = gene_shipOrder2[i];
+            gene_shipOrder2[i] = tempOrder;
+
+            // 2.交叉gene_shipBerth[]
+            int tempBerth = gene_shipBerth1[i];
+            gene_shipBerth1[i] = gene_shipBerth2[i];
+            gene_shipBerth2[i] = tempBerth;
+
+            // 3.交叉gene_shipCrane
+            int tempCrane = gene_shipCrane1[i];
+            gene_shipCrane1[i] = gene_shipCrane2[i];
+            gene_shipCrane2[i] = tempCrane;
+        }
+
+        // 判断交叉后是否符合约束条件
+        // 1.靠泊顺序不能重复 -> 利用Set不重复的特性判断顺序编号是否重复
+        Set<Integer> setOrder1 = new HashSet<>();
+        Set<Integer> setOrder2 = new HashSet<>();
+        for (int i = 0; i < shipNum; i++) {
+            setOrder1.add(gene_shipOrder1[i]);
+            setOrder2.add(gene_shipOrder2[i]);
+        }
+
+        // 对交叉后的染色体编码实行交换策略
+        int m, n;// m,n用于定位交叉区域外的重复编号的位置
+        boolean already;// 标识是否已经找到重复编号
+        while (setOrder1.size() != shipNum || setOrder2.size() != shipNum) {
+            m = n = -1;// m,n重新置-1
+            already = false;// already重新置false
+
+            for (int i = left; i <= right; i++) {
+                for (int j = 0; j < left; j++) {
+                    if (gene_shipOrder1[i] == gene_shipOrder1[j]) {
+                        m = j;
+                        already = true;
+                        break;
+                    }
+                }
+                if (!already) {
+                    for (int j = right + 1; j < shipNum; j++) {
+                        if (gene_shipOrder1[i] == gene_shipOrder1[j]) {
+                            m = j;
+                            already = true;
+                            break;
+                        }
+                    }
+                }
+                if (already) {
+                    break;
+                }
+            }
+            already = false;// already重新置false
+
+            for (int i = left; i <= right; i++) {
+                for (int j = 0; j < left; j++) {
+                    if (gene_shipOrder2[i] == gene_shipOrder2[j]) {
+                        n = j;
+                        already = true;
+                        break;
+                    }
+                }
+                if (!already) {
+                    for (int j = right + 1; j < shipNum; j++) {
+                        if (gene_shipOrder2[i] == gene_shipOrder2[j]) {
+                            n = j;
+                            already = true;
+                            break;
+                        }
+                    }
+                }
+                if (already) {
+                    break;
+                }
+            }
+
+            if (m != -1 && n != -1) {
+                // m和n都不等于-1时才进行交换，将m和n所在位置的SO/SB/SC都进行交换
+                int temp = gene_shipOrder1[m];
+                gene_shipOrder1[m] = gene_shipOrder2[n];
+                gene_shipOrder2[n] = temp;
+
+                temp = gene_shipBerth1[m];
+                gene_shipBerth1[m] = gene_shipBerth2[n];
+                gene_shipBerth2[n] = temp;
+
+                temp = gene_shipCrane1[m];
+                gene_shipCrane1[m] = gene_shipCrane2[n];
+                gene_shipCrane2[n] = temp;
+            }
+
+            // 向集合中重新添加元素
+            setOrder1.clear();
+            setOrder2.clear();
+            for (int i = 0; i < shipNum; i++) {
+                setOrder1.add(gene_shipOrder1[i]);
+                setOrder2.add(gene_shipOrder2[i]);
+            }
+        }
+
+        // 2.分配的岸桥不能大于最大可接受岸桥 -> 若大于则分配岸桥改为最大可接受岸桥数
+        for (int i = 0; i < shipNum; i++) {
+            if (gene_shipCrane1[i] > craneMax[i]) {
+                gene_shipCrane1[i] = craneMax[i];
+            }
+            if (gene_shipCrane2[i] > craneMax[i]) {
+                gene_shipCrane2[i] = craneMax[i];
+            }
+        }
+
+        List<Chromosome> listForReturn = new ArrayList<>();
+        listForReturn.add(chro1);
+        listForReturn.add(chro2);
+        return listForReturn;
+    }
+
+    // 变异染色体的一个基因族，变异位置只有一个合法取值时(只有1个泊位或最大可接受岸桥数为1)不改变染色体
+    public void mutate(Chromosome chro, int family, SplittableRandom random) {
+        if (family == AdaptiveParameter.FAMILY_ORDER) {
+
+            // 1.变异gene_shipOrder -> 用两个位置上的数交换来模拟变异
+            int loc1 = ((int) (random.nextDouble() * shipNum)) % shipNum;// 变异位置1
+            int loc2 = ((int) (random.nextDouble() * shipNum)) % shipNum;// 变异位置2
+
+            int[] gene_shipOrder = chro.getGene_shipOrder();
+            int temp = gene_shipOrder[loc1];
+            gene_shipOrder[loc1] = gene_shipOrder[loc2];
+            gene_shipOrder[loc2] = temp;
+
+        } else if (family == AdaptiveParameter.FAMILY_BERTH) {
+
+            // 2.变异gene_shipBerth
+            int loc = ((int) (random.nextDouble() * shipNum)) % shipNum;// 变异的位置
+
+            int[] gene_shipBerth = chro.getGene_shipBerth();
+            if (berthNum < 2) {
+                return;
+            }
+            int temp = (int) (random.nextDouble() * berthNum + 1);
+            while (temp == gene_shipBerth[loc]) {
+                temp = (int) (random.nextDouble() * berthNum + 1);
+            }
+            gene_shipBerth[loc] = temp;
+
+        } else if (family == AdaptiveParameter.FAMILY_CRANE) {
+
+            // 3.变异gene_shipCrane
+            int loc = ((int) (random.nextDouble() * shipNum)) % shipNum;
+
+            int[] gene_shipCrane = chro.getGene_shipCrane();
+            if (craneMax[loc] < 2) {
+                return;
+            }
+            int temp = (int) (random.nextDouble() * craneMax[loc] + 1);
+            while (temp == gene_shipCrane[loc]) {
+                temp = (int) (random.nextDouble() * craneMax[loc] + 1);
+            }
+            gene_shipCrane[loc] = temp;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 多目标求解(NSGA-II)：同时最小化Evaluator的目标向量(平均在港时间、最长等待时间、完工时间、岸桥空闲率)，结果为Pareto前沿
+ *
+ * 每代由父代经二元锦标赛选择、两点交叉和变异产生同样数量的子代，父代和子代合并后做快速非支配排序，
+ * 按前沿依次进入下一代，最后一个放不下的前沿按拥挤距离从大到小选取；
+ * 目标向量、前沿编号和拥挤距离都按染色体编号存放在一维数组中，非支配排序的时间复杂度为O(MN²)
+ *
+ */
+public class Nsga2 implements Solver {
+
+    private static final double CROSS_RATE = 0.9;// 交叉率
+    private static final double MUTATION_RATE = 0.2;// 每个子代变异一个基因族的概率
+    private static final int M = Evaluator.OBJECTIVE_NUM;// 目标数
+
+    private final ProblemInstance instance;
+    private final Evaluator evaluator;
+    private final Neighbourhood neighbourhood;
+    private final SplittableRandom random;
+    private final int generationMax;// 最大迭代代数
+    private final int populationSize;
+
+    private double target;// 目标平均在港时间，0表示不设目标
+    private boolean verbose = true;
+    private volatile boolean cancelled;// 是否被请求提前结束
+    private ProgressListener progressListener;// 平均在港时间最小的解改进时的回调
+
+    // 前populationSize个为父代，之后为子代；目标向量按行存放，下标为 染色体编号 * M + 目标编号
+    private final Chromosome[] population;
+    private final double[] objectives;
+    private final int[] rank;// 所在前沿的编号，从0开始
+    private final double[] crowding;// 拥挤距离
+
+    // 非支配排序的工作数组
+    private final int[] dominatedCount;// 支配该染色体的染色体数
+    private final int[] dominatingNum;// 该染色体支配的染色体数
+    private final int[] dominating;// 按行存放各染色体支配的染色体编号，下标为 编号 * 合并种群大小 + k
+    private final int[] fronts;// 按前沿依次存放染色体编号
+    private final int[] frontStart;// 第f个前沿在fronts中的起点，frontStart[前沿数]为合并种群大小
+
+    private Chromosome optimalChromosome;// 平均在港时间最小的解
+    private List<Chromosome> paretoFront = new ArrayList<>();
+    private double[] paretoObjectives = new double[0];
+    private long evaluations;
+    private int generation;
+
+    public Nsga2(ProblemInstance instance, long seed, int generationMax) {
+        this.instance = instance;
+        this.evaluator = new Evaluator(instance);
+        this.neighbourhood = new Neighbourhood(instance);
+        this.random = new SplittableRandom(seed);
+        this.generationMax = generationMax;
+        this.populationSize = GeneticAlgorithm.POPULATION_SIZE;
+
+        int size = populationSize * 2;
+        population = new Chromosome[size];
+        objectives = new double[size * M];
+        rank = new int[size];
+        crowding = new double[size];
+        dominatedCount = new int[size];
+        dominatingNum = new int[size];
+        dominating = new int[size * size];
+        fronts = new int[size];
+        frontStart = new int[size + 1];
+    }
+
+    @Override
+    public void start() {
+
+        // 1.初始种群
+        for (int i = 0; i < populationSize; i++) {
+            population[i] = new Chromosome(instance.getShipNum(), instance.getBerthNum(), instance.getCraneMax(),
+                    random);
+            evaluate(i);
+        }
+        rankAndCrowd(populationSize);
+        updateOptimal();
+
+        while (generation < generationMax && !reachedTarget() && !cancelled) {
+            generation++;
+
+            // 2.产生子代，放在父代之后
+            for (int c = populationSize; c < populationSize * 2; c += 2) {
+                Chromosome father = population[tournament()];
+                Chromosome mother = population[tournament()];
+                List<Chromosome> children = random.nextDouble() < CROSS_RATE
+                        ? neighbourhood.cross(father, mother, random)
+                        : List.of(Neighbourhood.copy(father), Neighbourhood.copy(mother));
+
+                for (int k = 0; k < 2 && c + k < populationSize * 2; k++) {
+                    Chromosome child = children.get(k);
+                    if (random.nextDouble() < MUTATION_RATE) {
+                        neighbourhood.mutate(child, random.nextInt(AdaptiveParameter.FAMILY_NUM), random);
+                    }
+                    population[c + k] = child;
+                    evaluate(c + k);
+                }
+            }
+
+            // 3.合并种群排序后选出下一代
+            int frontNum = rankAndCrowd(populationSize * 2);
+            select(frontNum);
+            updateOptimal();
+        }
+
+        collectFront();
+
+        if (verbose) {
+            System.out.println("NSGA-II 迭代代数：" + generation + " 完整模拟次数：" + evaluations + " Pareto前沿：" + paretoFront.size());
+            System.out.println("平均在港时间：" + 1 / optimalChromosome.getScore());
+        }
+    }
+
+    private void evaluate(int i) {
+        evaluator.objectives(population[i], objectives, i * M);
+        evaluations++;
+    }
+
+    // 对前size个染色体做快速非支配排序并计算各前沿内的拥挤距离，返回前沿数
+    private int rankAndCrowd(int size) {
+
+        // 1.两两比较，记录支配关系
+        for (int i = 0; i < size; i++) {
+            dominatedCount[i] = 0;
+            dominatingNum[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int d = dominance(i, j);
+                if (d < 0) {
+                    dominating[i * population.length + dominatingNum[i]++] = j;
+                    dominatedCount[j]++;
+                } else if (d > 0) {
+                    dominating[j * population.length + dominatingNum[j]++] = i;
+                    dominatedCount[i]++;
+                }
+            }
+        }
+
+        // 2.不被支配的为第0个前沿，依次去掉当前前沿后不再被支配的为下一个前沿
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (dominatedCount[i] == 0) {
+                rank[i] = 0;
+                fronts[count++] = i;
+            }
+        }
+        int frontNum = 0;
+        int from = 0;
+        while (from < count) {
+            frontStart[frontNum] = from;
+            int to = count;
+            for (int p = from; p < to; p++) {
+                int i = fronts[p];
+                for (int k = 0; k < dominatingNum[i]; k++) {
+                    int j = dominating[i * population.length + k];
+                    if (--dominatedCount[j] == 0) {
+                        rank[j] = frontNum + 1;
+                        fronts[count++] = j;
+                    }
+                }
+            }
+            crowd(from, to);
+            frontNum++;
+            from = to;
+        }
+        frontStart[frontNum] = count;
+        return frontNum;
+    }
+
+    // i支配j返回-1，j支配i返回1，互不支配返回0
+    private int dominance(int i, int j) {
+        boolean iBetter = false;
+        boolean jBetter = false;
+        for (int m = 0; m < M; m++) {
+            double a = objectives[i * M + m];
+            double b = objectives[j * M + m];
+            if (a < b) {
+                iBetter = true;
+            } else if (b < a) {
+                jBetter = true;
+            }
+        }
+        if (iBetter == jBetter) {
+            return 0;
+        }
+        return iBetter ? -1 : 1;
+    }
+
+    // 前沿fronts[from, to)内的拥挤距离：各目标上相邻两解的距离按该目标的范围归一化后求和，两端为无穷大
+    private void crowd(int from, int to) {
+        for (int p = from; p < to; p++) {
+            crowding[fronts[p]] = 0;
+        }
+        if (to - from <= 2) {
+            for (int p = from; p < to; p++) {
+                crowding[fronts[p]] = Double.POSITIVE_INFINITY;
+            }
+            return;
+        }
+
+        for (int m = 0; m < M; m++) {
+            sortByObjective(from, to, m);
+            double min = objectives[fronts[from] * M + m];
+            double max = objectives[fronts[to - 1] * M + m];
+            crowding[fronts[from]] = Double.POSITIVE_INFINITY;
+            crowding[fronts[to - 1]] = Double.POSITIVE_INFINITY;
+            if (max == min) {
+                continue;
+            }
+            for (int p = from + 1; p < to - 1; p++) {
+                double gap = objectives[fronts[p + 1] * M + m] - objectives[fronts[p - 1] * M + m];
+                crowding[fronts[p]] += gap / (max - min);
+            }
+        }
+    }
+
+    // 把fronts[from, to)按第m个目标从小到大排序(插入排序，前沿通常较小)
+    private void sortByObjective(int from, int to, int m) {
+        for (int p = from + 1; p < to; p++) {
+            int i = fronts[p];
+            double key = objectives[i * M + m];
+            int q = p - 1;
+            while (q >= from && objectives[fronts[q] * M + m] > key) {
+                fronts[q + 1] = fronts[q];
+                q--;
+            }
+            fronts[q + 1] = i;
+        }
+    }
+
+    // 把fronts[from, to)按拥挤距离从大到小排序
+    private void sortByCrowding(int from, int to) {
+        for (int p = from + 1; p < to; p++) {
+            int i = fronts[p];
+            double key = crowding[i];
+            int q = p - 1;
+            while (q >= from && crowding[fronts[q]] < key) {
+                fronts[q + 1] = fronts[q];
+                q--;
+            }
+            fronts[q + 1] = i;
+        }
+    }
+
+    // 按前沿依次选出populationSize个染色体作为下一代，移到数组前部
+    private void select(int frontNum) {
+        int chosen = 0;
+        for (int f = 0; f < frontNum && chosen < populationSize; f++) {
+            int from = frontStart[f];
+            int to = frontStart[f + 1];
+            if (chosen + to - from > populationSize) {
+                sortByCrowding(from, to);
+            }
+            chosen = chosen + Math.min(to - from, populationSize - chosen);
+        }
+
+        // fronts的前populationSize个即为下一代，按编号复制到前部
+        Chromosome[] nextPopulation = new Chromosome[populationSize];
+        double[] nextObjectives = new double[populationSize * M];
+        int[] nextRank = new int[populationSize];
+        double[] nextCrowding = new double[populationSize];
+        for (int p = 0; p < populationSize; p++) {
+            int i = fronts[p];
+            nextPopulation[p] = population[i];
+            System.arraycopy(objectives, i * M, nextObjectives, p * M, M);
+            nextRank[p] = rank[i];
+            nextCrowding[p] = crowding[i];
+        }
+        System.arraycopy(nextPopulation, 0, population, 0, populationSize);
+        System.arraycopy(nextObjectives, 0, objectives, 0, populationSize * M);
+        System.arraycopy(nextRank, 0, rank, 0, populationSize);
+        System.arraycopy(nextCrowding, 0, crowding, 0, populationSize);
+    }
+
+    // 二元锦标赛：前沿编号小者胜，相同时拥挤距离大者胜
+    private int tournament() {
+        int a = random.nextInt(populationSize);
+        int b = random.nextInt(populationSize);
+        if (rank[a] != rank[b]) {
+            return rank[a] < rank[b] ? a : b;
+        }
+        return crowding[a] >= crowding[b] ? a : b;
+    }
+
+    // 更新平均在港时间最小的解，改进时回调
+    private void updateOptimal() {
+        Chromosome best = optimalChromosome;
+        for (int i = 0; i < populationSize; i++) {
+            if (best == null || population[i].getScore() > best.getScore()) {
+                best = population[i];
+            }
+        }
+        if (best != optimalChromosome) {
+            optimalChromosome = best;
+            if (progressListener != null) {
+                progressListener.progress(evaluations, optimalChromosome);
+            }
+        }
+    }
+
+    // 最终种群中第0个前沿的染色体，去掉目标向量相同的，按平均在港时间从小到大排列
+    private void collectFront() {
+        rankAndCrowd(populationSize);
+
+        List<Integer> members = new ArrayList<>();
+        for (int i = 0; i < populationSize; i++) {
+            if (rank[i] != 0) {
+                continue;
+            }
+            boolean duplicate = false;
+            for (int j : members) {
+                if (sameObjectives(i, j)) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                members.add(i);
+            }
+        }
+        members.sort((i, j) -> Double.compare(objectives[i * M], objectives[j * M]));
+
+        paretoFront = new ArrayList<>();
+        paretoObjectives = new double[members.size() * M];
+        for (int p = 0; p < members.size(); p++) {
+            paretoFront.add(population[members.get(p)]);
+            System.arraycopy(objectives, members.get(p) * M, paretoObjectives, p * M, M);
+        }
+    }
+
+    private boolean sameObjectives(int i, int j) {
+        for (int m = 0; m < M; m++) {
+            if (objectives[i * M + m] != objectives[j * M + m]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean reachedTarget() {
+        return target > 0 && 1 / optimalChromosome.getScore() <= target;
+    }
+
+    // Pareto前沿上的染色体，按平均在港时间从小到大排列
+    public List<Chromosome> getParetoFront() {
+        return paretoFront;
+    }
+
+    // Pareto前沿的目标向量，下标为 前沿中的序号 * Evaluator.OBJECTIVE_NUM + 目标编号
+    public double[] getParetoObjectives() {
+        return paretoObjectives;
+    }
+
+    @Override
+    public Chromosome getOptimalChromosome() {
+        return optimalChromosome;
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public void setTarget(double target) {
+        this.target = target;
+    }
+
+    @Override
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+}
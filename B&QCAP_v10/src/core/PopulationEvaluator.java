@@ -0,0 +1,34 @@
+package core;
+
+import java.util.List;
+
+/**
+ * 批量计算一组染色体的适应度值，结果通过Chromosome.setScore写回
+ *
+ */
+public interface PopulationEvaluator {
+
+    void evaluate(List<Chromosome> chromosomes);
+
+    // 释放计算资源
+    default void close() {
+    }
+
+    /**
+     * 优先使用向量化的批量模拟，运行环境不支持时退回逐个模拟
+     *
+     * 向量化需要以 --add-modules jdk.incubator.vector 启动JVM，设置 -Dbqcap.vector=false 可强制使用逐个模拟
+     */
+    static PopulationEvaluator create(ProblemInstance instance) {
+        if (Boolean.parseBoolean(System.getProperty("bqcap.vector", "true"))) {
+            try {
+                if (VectorEvaluator.isSupported()) {
+                    return new VectorEvaluator(instance);
+                }
+            } catch (LinkageError e) {
+                // 未加载jdk.incubator.vector模块
+            }
+        }
+        return new Evaluator(instance);
+    }
+}
@@ -0,0 +1,235 @@
+package core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 泊位岸桥分配问题的算例：船舶的最大可接受岸桥数、到港时间、承载装箱量，以及码头的泊位数和总岸桥数
+ *
+ * 算例文件格式见src/core/data：前三个非空行依次为craneMax[]、time_arrive[]、goodsAmount[]，
+ * 之后可选 berthNum=泊位数、craneTotal=总岸桥数，其余行忽略；
+ * 可选的可用时间表(见AvailabilityCalendar)，可以写多行：craneCalendar=时刻:岸桥数,... 表示从该时刻起的岸桥数，
+ * berthClosed=泊位:开始-结束,... 表示泊位(从1开始)在[开始, 结束)内不接受新船靠泊，时间单位与time_arrive相同
+ *
+ */
+public class ProblemInstance {
+
+    public static final String DEFAULT_PATH = "src/core/data";// 默认算例文件
+    public static final String DEFAULT_RESOURCE = "/core/data";// 打包在jar中的默认算例
+    public static final int DEFAULT_BERTH_NUM = 4;// 默认泊位数
+    public static final int DEFAULT_CRANE_TOTAL = 16;// 默认总岸桥数
+
+    private final int[] craneMax;// 能接受的最大岸桥数
+    private final int[] time_arrive;// 船舶到港时间
+    private final int[] goodsAmount;// 承载装箱量
+    private final int berthNum;// 泊位数
+    private final int craneTotal;// 总岸桥数
+    private final AvailabilityCalendar calendar;// 岸桥数和泊位的可用时间表
+
+    public ProblemInstance(int[] craneMax, int[] time_arrive, int[] goodsAmount, int berthNum, int craneTotal) {
+        this(craneMax, time_arrive, goodsAmount, berthNum, craneTotal,
+                AvailabilityCalendar.constant(berthNum, craneTotal));
+    }
+
+    public ProblemInstance(int[] craneMax, int[] time_arrive, int[] goodsAmount, int berthNum, int craneTotal,
+            AvailabilityCalendar calendar) {
+        if (craneMax.length == 0 || craneMax.length != time_arrive.length || craneMax.length != goodsAmount.length) {
+            throw new IllegalArgumentException("算例中craneMax、time_arrive、goodsAmount的长度必须相同且不能为0");
+        }
+        if (berthNum < 1) {
+            throw new IllegalArgumentException("泊位数不能小于1：" + berthNum);
+        }
+        for (int i = 0; i < craneMax.length; i++) {
+            if (craneMax[i] < 1) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 艘船的最大可接受岸桥数不能小于1：" + craneMax[i]);
+            }
+        }
+        // 最后一次变化后的岸桥数不够时，需要岸桥多的船舶永远无法装卸，模拟不会结束
+        int need = 0;
+        for (int c : craneMax) {
+            need = Math.max(need, c);
+        }
+        if (calendar.getFinalCapacity() < need) {
+            throw new IllegalArgumentException("时间表最后的岸桥数 " + calendar.getFinalCapacity() + " 小于船舶的最大可接受岸桥数 " + need);
+        }
+        this.craneMax = craneMax;
+        this.time_arrive = time_arrive;
+        this.goodsAmount = goodsAmount;
+        this.berthNum = berthNum;
+        this.craneTotal = craneTotal;
+        this.calendar = calendar;
+    }
+
+    // 从文件加载算例
+    public static ProblemInstance load(String path) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    // 加载默认算例：优先使用DEFAULT_PATH，不存在时(不在B&QCAP_v10目录下运行)使用类路径中的DEFAULT_RESOURCE
+    public static ProblemInstance loadDefault() throws IOException {
+        if (new File(DEFAULT_PATH).isFile()) {
+            return load(DEFAULT_PATH);
+        }
+        InputStream in = ProblemInstance.class.getResourceAsStream(DEFAULT_RESOURCE);
+        if (in == null) {
+            throw new FileNotFoundException("找不到默认算例：" + DEFAULT_PATH + " 和类路径中的 " + DEFAULT_RESOURCE);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    // 按照算例文件格式解析
+    public static ProblemInstance parse(Reader reader) throws IOException {
+        BufferedReader br = new BufferedReader(reader);
+
+        int[][] arrays = new int[3][];// 1.craneMax 2.time_arrive 3.goodsAmount
+        int count = 0;
+        int berthNum = DEFAULT_BERTH_NUM;
+        int craneTotal = DEFAULT_CRANE_TOTAL;
+        List<int[]> craneChanges = new ArrayList<>();// {时刻, 岸桥数}
+        List<int[]> closures = new ArrayList<>();// {泊位, 开始, 结束}
+        String line;
+        while ((line = br.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (count < arrays.length) {
+                arrays[count++] = parseLine(line);
+                continue;
+            }
+
+            // 可选参数 key=value，其他说明文字忽略
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = line.substring(0, eq).trim();
+            String value = line.substring(eq + 1).trim();
+            if ("berthNum".equals(key)) {
+                berthNum = parseLine(value)[0];
+            } else if ("craneTotal".equals(key)) {
+                craneTotal = parseLine(value)[0];
+            } else if ("craneCalendar".equals(key)) {
+                for (String item : value.split(",")) {
+                    craneChanges.add(parseLine(item.replace(':', ',')));// 时刻:岸桥数
+                }
+            } else if ("berthClosed".equals(key)) {
+                for (String item : value.split(",")) {
+                    closures.add(parseLine(item.replace(':', ',').replace('-', ',')));// 泊位:开始-结束
+                }
+            }
+        }
+        if (count < arrays.length) {
+            throw new IOException("算例文件不完整，需要craneMax、time_arrive、goodsAmount三行数据");
+        }
+
+        int[] craneTime = new int[craneChanges.size()];
+        int[] craneCount = new int[craneChanges.size()];
+        for (int i = 0; i < craneChanges.size(); i++) {
+            int[] change = checkLength(craneChanges.get(i), 2, "craneCalendar");
+            craneTime[i] = change[0];
+            craneCount[i] = change[1];
+        }
+        int[] closedBerth = new int[closures.size()];
+        int[] closedFrom = new int[closures.size()];
+        int[] closedTo = new int[closures.size()];
+        for (int i = 0; i < closures.size(); i++) {
+            int[] closure = checkLength(closures.get(i), 3, "berthClosed");
+            closedBerth[i] = closure[0];
+            closedFrom[i] = closure[1];
+            closedTo[i] = closure[2];
+        }
+
+        try {
+            AvailabilityCalendar calendar = new AvailabilityCalendar(berthNum, craneTotal, craneTime, craneCount,
+                    closedBerth, closedFrom, closedTo);
+            return new ProblemInstance(arrays[0], arrays[1], arrays[2], berthNum, craneTotal, calendar);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("算例文件格式错误：" + e.getMessage(), e);
+        }
+    }
+
+    private static int[] checkLength(int[] array, int length, String key) throws IOException {
+        if (array.length != length) {
+            throw new IOException("算例文件格式错误：" + key + " 中的 " + Arrays.toString(array));
+        }
+        return array;
+    }
+
+    // 按照算例文件格式输出，parse(new StringReader(format()))可得到相同的算例
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        appendLine(sb, craneMax);
+        appendLine(sb, time_arrive);
+        appendLine(sb, goodsAmount);
+        sb.append("berthNum=").append(berthNum).append('\n');
+        sb.append("craneTotal=").append(craneTotal).append('\n');
+        sb.append(calendar.format());
+        return sb.toString();
+    }
+
+    private static void appendLine(StringBuilder sb, int[] array) {
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(array[i]);
+        }
+        sb.append('\n');
+    }
+
+    private static int[] parseLine(String line) throws IOException {
+        String[] temp = line.split(",");
+        int[] array = new int[temp.length];
+        try {
+            for (int i = 0; i < temp.length; i++) {
+                array[i] = Integer.parseInt(temp[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("算例文件格式错误：" + line, e);
+        }
+        return array;
+    }
+
+    public int getShipNum() {
+        return craneMax.length;
+    }
+
+    public int[] getCraneMax() {
+        return craneMax;
+    }
+
+    public int[] getTime_arrive() {
+        return time_arrive;
+    }
+
+    public int[] getGoodsAmount() {
+        return goodsAmount;
+    }
+
+    public int getBerthNum() {
+        return berthNum;
+    }
+
+    public int getCraneTotal() {
+        return craneTotal;
+    }
+
+    public AvailabilityCalendar getCalendar() {
+        return calendar;
+    }
+}
@@ -0,0 +1,10 @@
+package core;
+
+/**
+ * 求解进度回调：最优解改进时由求解线程调用，实现应尽快返回
+ *
+ */
+public interface ProgressListener {
+
+    void progress(long evaluations, Chromosome optimal);
+}
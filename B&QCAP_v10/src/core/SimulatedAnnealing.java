@@ -0,0 +1,158 @@
+package core;
+
+import java.util.SplittableRandom;
+
+/**
+ * 模拟退火：每步随机变异当前解的一个基因族，按Metropolis准则接受，温度按几何级数下降
+ *
+ * 连续RESTART_AFTER步没有改进最优解或温度降到下限时，从最优解重新开始并恢复初始温度
+ *
+ */
+public class SimulatedAnnealing implements Solver {
+
+    private static final double COOLING = 0.999;// 每步的降温系数
+    private static final double ACCEPT_INIT = 0.5;// 初始温度下接受平均劣化量的概率
+    private static final double TEMPERATURE_MIN_RATIO = 1e-3;// 温度下限与初始温度之比
+    private static final int RESTART_AFTER = 2000;// 连续该步数没有改进最优解时重启
+    private static final int SAMPLE_NUM = 50;// 估计初始温度时的采样次数
+
+    private final ProblemInstance instance;
+    private final Evaluator evaluator;
+    private final Neighbourhood neighbourhood;
+    private final SplittableRandom random;
+    private final long evaluationMax;// 完整模拟次数上限
+
+    private double target;// 目标在港时间，0表示不设目标
+    private boolean verbose = true;
+    private volatile boolean cancelled;// 是否被请求提前结束
+    private ProgressListener progressListener;// 最优解改进时的回调
+
+    private Chromosome optimalChromosome;// 最优解
+    private long evaluations;// 完整模拟次数
+    private int restarts;// 重启次数
+
+    public SimulatedAnnealing(ProblemInstance instance, long seed, long evaluationMax) {
+        this.instance = instance;
+        this.evaluator = new Evaluator(instance);
+        this.neighbourhood = new Neighbourhood(instance);
+        this.random = new SplittableRandom(seed);
+        this.evaluationMax = evaluationMax;
+    }
+
+    @Override
+    public void start() {
+
+        Chromosome current = new Chromosome(instance.getShipNum(), instance.getBerthNum(), instance.getCraneMax(),
+                random);
+        evaluate(current);
+        optimalChromosome = current;
+
+        double temperature_init = initialTemperature(current);
+        reportProgress();
+        double temperature = temperature_init;
+        int sinceImprove = 0;// 连续没有改进最优解的步数
+
+        while (evaluations < evaluationMax && !reachedTarget() && !cancelled) {
+
+            Chromosome neighbour = Neighbourhood.copy(current);
+            neighbourhood.mutate(neighbour, random.nextInt(AdaptiveParameter.FAMILY_NUM), random);
+            evaluate(neighbour);
+
+            // 在港时间的变化量，小于等于0直接接受，否则以exp(-delta / T)的概率接受
+            double delta = 1 / neighbour.getScore() - 1 / current.getScore();
+            if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                current = neighbour;
+            }
+
+            if (current.getScore() > optimalChromosome.getScore()) {
+                optimalChromosome = current;
+                sinceImprove = 0;
+                reportProgress();
+            } else {
+                sinceImprove++;
+            }
+
+            temperature = temperature * COOLING;
+            if (sinceImprove >= RESTART_AFTER || temperature < temperature_init * TEMPERATURE_MIN_RATIO) {
+                // 从最优解重新开始
+                current = optimalChromosome;
+                temperature = temperature_init;
+                sinceImprove = 0;
+                restarts++;
+            }
+        }
+
+        if (verbose) {
+            System.out.println("模拟退火 完整模拟次数：" + evaluations + " 重启次数：" + restarts);
+            System.out.println("平均在港时间：" + 1 / optimalChromosome.getScore());
+        }
+    }
+
+    // 对初始解随机采样邻域，使初始温度下接受平均劣化量的概率为ACCEPT_INIT
+    private double initialTemperature(Chromosome chro) {
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < SAMPLE_NUM; i++) {
+            Chromosome neighbour = Neighbourhood.copy(chro);
+            neighbourhood.mutate(neighbour, random.nextInt(AdaptiveParameter.FAMILY_NUM), random);
+            evaluate(neighbour);
+
+            double delta = 1 / neighbour.getScore() - 1 / chro.getScore();
+            if (delta > 0) {
+                sum = sum + delta;
+                count++;
+            }
+            if (neighbour.getScore() > optimalChromosome.getScore()) {
+                optimalChromosome = neighbour;
+            }
+        }
+        double delta_average = count > 0 ? sum / count : 1;
+        return -delta_average / Math.log(ACCEPT_INIT);
+    }
+
+    private void evaluate(Chromosome chro) {
+        evaluator.evaluate(chro);
+        evaluations++;
+    }
+
+    private boolean reachedTarget() {
+        return target > 0 && 1 / optimalChromosome.getScore() <= target;
+    }
+
+    @Override
+    public Chromosome getOptimalChromosome() {
+        return optimalChromosome;
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public void setTarget(double target) {
+        this.target = target;
+    }
+
+    @Override
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // 最优解改进时回调
+    private void reportProgress() {
+        if (progressListener != null) {
+            progressListener.progress(evaluations, optimalChromosome);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package core;
+
+/**
+ * 求解器：在SO/SB/SC编码上搜索平均在港时间最小的染色体，适应度值由Evaluator计算
+ *
+ */
+public interface Solver {
+
+    // 求解，达到迭代上限或目标在港时间后返回
+    void start();
+
+    // 搜索过程中的最优染色体，其适应度值为平均在港时间的倒数
+    Chromosome getOptimalChromosome();
+
+    // 完整模拟的次数
+    long getEvaluations();
+
+    // 平均在港时间(h)不大于target时提前结束，0表示不设目标
+    void setTarget(double target);
+
+    void setVerbose(boolean verbose);
+
+    // 最优解改进时回调
+    void setProgressListener(ProgressListener listener);
+
+    // 请求提前结束，可以在其他线程调用，start()在当前迭代完成后返回
+    void cancel();
+
+    /**
+     * 按名称创建求解器：ga 遗传算法，sa 模拟退火，tabu 禁忌搜索，nsga2 多目标遗传算法
+     *
+     * budget为遗传算法和NSGA-II的迭代代数，其他求解器使用相同的完整模拟次数上限 budget * POPULATION_SIZE
+     */
+    static Solver create(String name, ProblemInstance instance, long seed, int budget) {
+        switch (name) {
+        case "ga":
+            return new GeneticAlgorithm(instance, seed, budget);
+        case "sa":
+            return new SimulatedAnnealing(instance, seed, (long) budget * GeneticAlgorithm.POPULATION_SIZE);
+        case "tabu":
+            return new TabuSearch(instance, seed, (long) budget * GeneticAlgorithm.POPULATION_SIZE);
+        case "nsga2":
+            return new Nsga2(instance, seed, budget);
+        default:
+            throw new IllegalArgumentException("未知的求解器：" + name);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package core;
+
+/**
+ * 代理模型：用染色体的特征线性估计平均在港时间，在完整模拟前筛掉明显较差的子代
+ *
+ * 特征包括各泊位的装卸负荷、最大泊位负荷、分配岸桥总数、靠泊顺序相对到港顺序的逆序对比例、位移和到港时间回退量；
+ * 模型为岭回归，训练样本来自完整模拟的结果，保存在定长的环形缓冲区中，每增加REFIT_INTERVAL个样本重新拟合一次
+ *
+ */
+public class Surrogate {
+
+    private static final int CAPACITY = 2000;// 保存的样本数上限
+    private static final int WARMUP = 200;// 样本数达到该值后才开始预测
+    private static final int REFIT_INTERVAL = 100;// 每增加该数量的样本重新拟合
+    private static final double LAMBDA = 1e-3;// 岭回归的正则化系数
+    private static final double ALPHA = 0.1;// 精度统计的平滑系数
+
+    private final int shipNum;
+    private final int berthNum;
+    private final int featureNum;
+    private final int[] time_arrive;
+    private final double[] serviceTime;// 每艘船每分配一台岸桥的装卸时间
+    private final int[] arriveRank;// 每艘船按到港时间的先后名次，从1开始
+
+    // 样本按行存放，下标为 样本编号 * featureNum + 特征编号
+    private final double[] samples;
+    private final double[] targets;
+    private int sampleCount;// 当前样本数
+    private int sampleNext;// 下一个样本写入的位置
+    private int sinceFit;// 上次拟合后增加的样本数
+
+    private final double[] mean;// 特征均值
+    private final double[] scale;// 特征标准差
+    private final double[] weight;// 标准化特征的回归系数
+    private double bias;// 截距，即目标均值
+    private boolean fitted;
+
+    private double meanAbsoluteError = -1;// 平均绝对误差(h)的平滑值
+    private double rankAccuracy = -1;// 预测与实际排序一致的染色体对比例的平滑值
+    private long screened;// 被代理模型筛掉的子代数
+
+    public Surrogate(ProblemInstance instance) {
+        this.shipNum = instance.getShipNum();
+        this.berthNum = instance.getBerthNum();
+        this.featureNum = berthNum + 5;
+        this.time_arrive = instance.getTime_arrive();
+
+        int[] goodsAmount = instance.getGoodsAmount();
+        serviceTime = new double[shipNum];
+        for (int i = 0; i < shipNum; i++) {
+            serviceTime[i] = goodsAmount[i] / Evaluator.CRANE_EFFICIENCY;
+        }
+
+        arriveRank = new int[shipNum];
+        for (int i = 0; i < shipNum; i++) {
+            int rank = 1;
+            for (int j = 0; j < shipNum; j++) {
+                if (time_arrive[j] < time_arrive[i] || (time_arrive[j] == time_arrive[i] && j < i)) {
+                    rank++;
+                }
+            }
+            arriveRank[i] = rank;
+        }
+
+        samples = new double[CAPACITY * featureNum];
+        targets = new double[CAPACITY];
+        mean = new double[featureNum];
+        scale = new double[featureNum];
+        weight = new double[featureNum];
+    }
+
+    // 计算染色体的特征，写入out[offset, offset + featureNum)
+    public void features(Chromosome chro, double[] out, int offset) {
+
+        int[] gene_shipOrder = chro.getGene_shipOrder();
+        int[] gene_shipBerth = chro.getGene_shipBerth();
+        int[] gene_shipCrane = chro.getGene_shipCrane();
+
+        for (int f = 0; f < featureNum; f++) {
+            out[offset + f] = 0;
+        }
+
+        // 1.各泊位的装卸负荷和分配岸桥总数
+        int craneSum = 0;
+        for (int i = 0; i < shipNum; i++) {
+            out[offset + gene_shipBerth[i] - 1] += serviceTime[i] / gene_shipCrane[i];
+            craneSum = craneSum + gene_shipCrane[i];
+        }
+        double loadMax = 0;
+        for (int b = 0; b < berthNum; b++) {
+            loadMax = Math.max(loadMax, out[offset + b]);
+        }
+        out[offset + berthNum] = loadMax;
+        out[offset + berthNum + 1] = craneSum;
+
+        // 2.靠泊顺序与到港顺序的差异
+        int inversions = 0;
+        int displacement = 0;
+        for (int i = 0; i < shipNum; i++) {
+            for (int j = i + 1; j < shipNum; j++) {
+                if ((arriveRank[i] < arriveRank[j]) != (gene_shipOrder[i] < gene_shipOrder[j])) {
+                    inversions++;
+                }
+            }
+            displacement = displacement + Math.abs(gene_shipOrder[i] - arriveRank[i]);
+        }
+        double pairs = Math.max(1, shipNum * (shipNum - 1) / 2);
+        out[offset + berthNum + 2] = inversions / pairs;
+        out[offset + berthNum + 3] = displacement / (double) shipNum;
+
+        // 3.后到港的船舶排在前面时会空等泊位，按顺序累计到港时间的回退量
+        int[] shipOfOrder = new int[shipNum];
+        for (int i = 0; i < shipNum; i++) {
+            shipOfOrder[gene_shipOrder[i] - 1] = i;
+        }
+        double wait = 0;
+        int latest = 0;
+        for (int order = 0; order < shipNum; order++) {
+            int k = shipOfOrder[order];
+            if (time_arrive[k] < latest) {
+                wait = wait + (latest - time_arrive[k]);
+            }
+            latest = Math.max(latest, time_arrive[k]);
+        }
+        out[offset + berthNum + 4] = wait / shipNum;
+    }
+
+    // 加入一个完整模拟过的染色体作为训练样本
+    public void add(Chromosome chro) {
+        features(chro, samples, sampleNext * featureNum);
+        targets[sampleNext] = 1 / chro.getScore();
+        sampleNext = (sampleNext + 1) % CAPACITY;
+        if (sampleCount < CAPACITY) {
+            sampleCount++;
+        }
+
+        sinceFit++;
+        if (sampleCount >= WARMUP && (!fitted || sinceFit >= REFIT_INTERVAL)) {
+            fit();
+        }
+    }
+
+    public boolean isReady() {
+        return fitted;
+    }
+
+    // 预测平均在港时间(h)
+    public double predict(Chromosome chro) {
+        double[] x = new double[featureNum];
+        features(chro, x, 0);
+
+        double y = bias;
+        for (int f = 0; f < featureNum; f++) {
+            y = y + weight[f] * (x[f] - mean[f]) / scale[f];
+        }
+        return y;
+    }
+
+    // 在标准化后的特征上求解 (X'X + λI)w = X'y
+    public void fit() {
+        int n = sampleCount;
+
+        double targetMean = 0;
+        for (int s = 0; s < n; s++) {
+            targetMean = targetMean + targets[s];
+        }
+        targetMean = targetMean / n;
+
+        for (int f = 0; f < featureNum; f++) {
+            double sum = 0;
+            double square = 0;
+            for (int s = 0; s < n; s++) {
+                double v = samples[s * featureNum + f];
+                sum = sum + v;
+                square = square + v * v;
+            }
+            mean[f] = sum / n;
+            double variance = square / n - mean[f] * mean[f];
+            scale[f] = variance > 1e-12 ? Math.sqrt(variance) : 1;
+        }
+
+        // 增广矩阵 [X'X + λI | X'y]
+        int width = featureNum + 1;
+        double[] a = new double[featureNum * width];
+        double[] x = new double[featureNum];
+        for (int s = 0; s < n; s++) {
+            for (int f = 0; f < featureNum; f++) {
+                x[f] = (samples[s * featureNum + f] - mean[f]) / scale[f];
+            }
+            double y = targets[s] - targetMean;
+            for (int r = 0; r < featureNum; r++) {
+                for (int c = 0; c < featureNum; c++) {
+                    a[r * width + c] += x[r] * x[c];
+                }
+                a[r * width + featureNum] += x[r] * y;
+            }
+        }
+        for (int r = 0; r < featureNum; r++) {
+            a[r * width + r] += LAMBDA * n;
+        }
+
+        solve(a, featureNum, weight);
+        bias = targetMean;
+        fitted = true;
+        sinceFit = 0;
+    }
+
+    // 列主元高斯消元，结果写入result
+    private static void solve(double[] a, int size, double[] result) {
+        int width = size + 1;
+        for (int col = 0; col < size; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < size; r++) {
+                if (Math.abs(a[r * width + col]) > Math.abs(a[pivot * width + col])) {
+                    pivot = r;
+                }
+            }
+            if (pivot != col) {
+                for (int c = 0; c < width; c++) {
+                    double temp = a[col * width + c];
+                    a[col * width + c] = a[pivot * width + c];
+                    a[pivot * width + c] = temp;
+                }
+            }
+            for (int r = col + 1; r < size; r++) {
+                double factor = a[r * width + col] / a[col * width + col];
+                for (int c = col; c < width; c++) {
+                    a[r * width + c] -= factor * a[col * width + c];
+                }
+            }
+        }
+        for (int r = size - 1; r >= 0; r--) {
+            double sum = a[r * width + size];
+            for (int c = r + 1; c < size; c++) {
+                sum = sum - a[r * width + c] * result[c];
+            }
+            result[r] = sum / a[r * width + r];
+        }
+    }
+
+    // 用一组完整模拟的结果统计预测精度，predicted和actual为平均在港时间(h)
+    public void recordAccuracy(double[] predicted, double[] actual, int n) {
+        if (n == 0) {
+            return;
+        }
+
+        double error = 0;
+        for (int i = 0; i < n; i++) {
+            error = error + Math.abs(predicted[i] - actual[i]);
+        }
+        error = error / n;
+        meanAbsoluteError = meanAbsoluteError < 0 ? error : meanAbsoluteError + ALPHA * (error - meanAbsoluteError);
+
+        if (n < 2) {
+            return;
+        }
+        int concordant = 0;
+        int pairs = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (actual[i] == actual[j]) {
+                    continue;
+                }
+                pairs++;
+                if ((predicted[i] < predicted[j]) == (actual[i] < actual[j])) {
+                    concordant++;
+                }
+            }
+        }
+        if (pairs > 0) {
+            double accuracy = concordant / (double) pairs;
+            rankAccuracy = rankAccuracy < 0 ? accuracy : rankAccuracy + ALPHA * (accuracy - rankAccuracy);
+        }
+    }
+
+    public void addScreened(int count) {
+        screened = screened + count;
+    }
+
+    public int getFeatureNum() {
+        return featureNum;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    // 平均绝对误差(h)，尚无统计时为-1
+    public double getMeanAbsoluteError() {
+        return meanAbsoluteError;
+    }
+
+    // 排序一致率，0.5相当于随机排序，尚无统计时为-1
+    public double getRankAccuracy() {
+        return rankAccuracy;
+    }
+
+    public long getScreened() {
+        return screened;
+    }
+}
@@ -0,0 +1,208 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 禁忌搜索：每次迭代随机生成CANDIDATE_NUM个邻域候选并批量计算，移动到其中最好的非禁忌候选
+ *
+ * 禁忌对象为(基因族, 位置)，被改变的位置在TENURE次迭代内不能再被同一基因族改变，优于最优解的候选不受禁忌限制；
+ * 连续RESTART_AFTER次迭代没有改进最优解时，从扰动后的最优解重新开始
+ *
+ */
+public class TabuSearch implements Solver {
+
+    private static final int CANDIDATE_NUM = 40;// 每次迭代的邻域候选数
+    private static final int TENURE = 7;// 禁忌期(迭代次数)
+    private static final int RESTART_AFTER = 300;// 连续该迭代次数没有改进最优解时重启
+    private static final int PERTURB_NUM = 3;// 重启时对最优解的变异次数
+
+    private final ProblemInstance instance;
+    private final Neighbourhood neighbourhood;
+    private final SplittableRandom random;
+    private final long evaluationMax;// 完整模拟次数上限
+    private final int[][] tabuUntil;// [基因族][位置] -> 禁忌到第几次迭代
+
+    private PopulationEvaluator evaluator;
+    private double target;// 目标在港时间，0表示不设目标
+    private boolean verbose = true;
+    private volatile boolean cancelled;// 是否被请求提前结束
+    private ProgressListener progressListener;// 最优解改进时的回调
+
+    private Chromosome optimalChromosome;// 最优解
+    private long evaluations;// 完整模拟次数
+    private int restarts;// 重启次数
+
+    public TabuSearch(ProblemInstance instance, long seed, long evaluationMax) {
+        this.instance = instance;
+        this.neighbourhood = new Neighbourhood(instance);
+        this.random = new SplittableRandom(seed);
+        this.evaluationMax = evaluationMax;
+        this.tabuUntil = new int[AdaptiveParameter.FAMILY_NUM][instance.getShipNum()];
+    }
+
+    @Override
+    public void start() {
+
+        evaluator = PopulationEvaluator.create(instance);
+        try {
+            search();
+        } finally {
+            evaluator.close();
+        }
+
+        if (verbose) {
+            System.out.println("禁忌搜索 完整模拟次数：" + evaluations + " 重启次数：" + restarts);
+            System.out.println("平均在港时间：" + 1 / optimalChromosome.getScore());
+        }
+    }
+
+    private void search() {
+
+        Chromosome current = new Chromosome(instance.getShipNum(), instance.getBerthNum(), instance.getCraneMax(),
+                random);
+        evaluate(List.of(current));
+        optimalChromosome = current;
+        reportProgress();
+
+        List<Chromosome> candidates = new ArrayList<>();
+        int[] families = new int[CANDIDATE_NUM];
+        int iteration = 0;
+        int sinceImprove = 0;// 连续没有改进最优解的迭代次数
+
+        while (evaluations < evaluationMax && !reachedTarget() && !cancelled) {
+            iteration++;
+
+            // 1.随机生成邻域候选并批量计算
+            candidates.clear();
+            int count = (int) Math.min(CANDIDATE_NUM, evaluationMax - evaluations);
+            for (int c = 0; c < count; c++) {
+                families[c] = random.nextInt(AdaptiveParameter.FAMILY_NUM);
+                Chromosome neighbour = Neighbourhood.copy(current);
+                neighbourhood.mutate(neighbour, families[c], random);
+                candidates.add(neighbour);
+            }
+            evaluate(candidates);
+
+            // 2.选出最好的非禁忌候选，优于最优解的候选不受禁忌限制；全部被禁忌时取最好的候选
+            int chosen = -1;
+            int fallback = 0;
+            for (int c = 0; c < count; c++) {
+                Chromosome candidate = candidates.get(c);
+                if (candidate.getScore() > candidates.get(fallback).getScore()) {
+                    fallback = c;
+                }
+                boolean admissible = !isTabu(current, candidate, families[c], iteration)
+                        || candidate.getScore() > optimalChromosome.getScore();
+                if (admissible && (chosen == -1 || candidate.getScore() > candidates.get(chosen).getScore())) {
+                    chosen = c;
+                }
+            }
+            if (chosen == -1) {
+                chosen = fallback;
+            }
+
+            // 3.移动并禁忌被改变的位置
+            Chromosome next = candidates.get(chosen);
+            int[] genes_old = genes(current, families[chosen]);
+            int[] genes_new = genes(next, families[chosen]);
+            for (int i = 0; i < genes_old.length; i++) {
+                if (genes_old[i] != genes_new[i]) {
+                    tabuUntil[families[chosen]][i] = iteration + TENURE;
+                }
+            }
+            current = next;
+
+            if (current.getScore() > optimalChromosome.getScore()) {
+                optimalChromosome = current;
+                sinceImprove = 0;
+                reportProgress();
+            } else {
+                sinceImprove++;
+            }
+
+            // 4.长时间没有改进时从扰动后的最优解重新开始
+            if (sinceImprove >= RESTART_AFTER && evaluations < evaluationMax) {
+                current = Neighbourhood.copy(optimalChromosome);
+                for (int k = 0; k < PERTURB_NUM; k++) {
+                    neighbourhood.mutate(current, random.nextInt(AdaptiveParameter.FAMILY_NUM), random);
+                }
+                evaluate(List.of(current));
+                for (int[] tabu : tabuUntil) {
+                    Arrays.fill(tabu, 0);
+                }
+                sinceImprove = 0;
+                restarts++;
+            }
+        }
+    }
+
+    // 候选相对当前解改变的位置中有处于禁忌期的
+    private boolean isTabu(Chromosome current, Chromosome candidate, int family, int iteration) {
+        int[] genes_old = genes(current, family);
+        int[] genes_new = genes(candidate, family);
+        for (int i = 0; i < genes_old.length; i++) {
+            if (genes_old[i] != genes_new[i] && tabuUntil[family][i] > iteration) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] genes(Chromosome chro, int family) {
+        if (family == AdaptiveParameter.FAMILY_ORDER) {
+            return chro.getGene_shipOrder();
+        } else if (family == AdaptiveParameter.FAMILY_BERTH) {
+            return chro.getGene_shipBerth();
+        }
+        return chro.getGene_shipCrane();
+    }
+
+    private void evaluate(List<Chromosome> chromosomes) {
+        evaluator.evaluate(chromosomes);
+        evaluations = evaluations + chromosomes.size();
+    }
+
+    private boolean reachedTarget() {
+        return target > 0 && 1 / optimalChromosome.getScore() <= target;
+    }
+
+    @Override
+    public Chromosome getOptimalChromosome() {
+        return optimalChromosome;
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public void setTarget(double target) {
+        this.target = target;
+    }
+
+    @Override
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // 最优解改进时回调
+    private void reportProgress() {
+        if (progressListener != null) {
+            progressListener.progress(evaluations, optimalChromosome);
+        }
+    }
+}
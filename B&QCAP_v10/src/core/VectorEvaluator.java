@@ -0,0 +1,229 @@
+package core;
+
+import java.util.List;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 向量化的批量适应度计算：每次取向量宽度个染色体，按时间单位同步模拟
+ *
+ * 模拟状态按结构数组存放，下标为 船舶编号 * lanes + 染色体编号。每个时间单位内，
+ * 剩余装箱量的递减和离港判断用向量指令对所有染色体同时完成，不在服务队列中的船舶由掩码排除；
+ * 靠泊、分配岸桥和离港后的泊位岸桥释放因染色体而异，按掩码逐个处理。结果与Evaluator完全一致
+ *
+ * 同一组染色体的时间同步推进，共用一个可用时间表的区段游标
+ *
+ * 模拟状态在多次调用间复用，不能被多个线程同时使用
+ *
+ */
+public class VectorEvaluator implements PopulationEvaluator {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final int shipNum;// 船舶数
+    private final int berthNum;// 泊位数
+    private final AvailabilityCalendar calendar;// 岸桥数和泊位的可用时间表
+    private final int lanes;// 同时模拟的染色体数，即向量宽度
+    private final int[] time_arrive;// 到港时间
+    private final int[] goodsAmount_init;// 初始装箱量
+
+    // 按船舶存放，下标为 船舶编号 * lanes + 染色体编号
+    private final double[] goodsAmount;// 剩余装箱量
+    private final double[] speed;// 每单位时间的装卸量，不在服务队列中的船舶为0
+    private final int[] servingLanes;// 每艘船正在服务的染色体数，为0时跳过该船的向量计算
+
+    // 按染色体存放，下标为 染色体编号 * shipNum(或berthNum) + 序号
+    private final int[] shipOfOrder;// 靠泊顺序 -> 船舶编号
+    private final int[] waitCrane;// 等待岸桥队列
+    private final boolean[] berth_free;// 泊位空闲情况
+
+    // 每个染色体的模拟进度
+    private final int[][] gene_shipBerth;
+    private final int[][] gene_shipCrane;
+    private final int[] order;// 下一个靠泊的顺序编号
+    private final int[] waitHead;// 等待岸桥队列的队首
+    private final int[] waitTail;// 等待岸桥队列的队尾
+    private final int[] serviceCount;// 服务队列中的船舶数
+    private final int[] craneUsed;// 已占用的岸桥数
+    private final double[] time_sum;// 已离港船舶的在港时间之和
+    private final boolean[] finished;// 是否模拟完成
+
+    public VectorEvaluator(ProblemInstance instance) {
+        this.shipNum = instance.getShipNum();
+        this.berthNum = instance.getBerthNum();
+        this.calendar = instance.getCalendar();
+        this.lanes = SPECIES.length();
+        this.time_arrive = instance.getTime_arrive();
+        this.goodsAmount_init = instance.getGoodsAmount();
+
+        goodsAmount = new double[shipNum * lanes];
+        speed = new double[shipNum * lanes];
+        servingLanes = new int[shipNum];
+
+        shipOfOrder = new int[lanes * shipNum];
+        waitCrane = new int[lanes * shipNum];
+        berth_free = new boolean[lanes * berthNum];
+
+        gene_shipBerth = new int[lanes][];
+        gene_shipCrane = new int[lanes][];
+        order = new int[lanes];
+        waitHead = new int[lanes];
+        waitTail = new int[lanes];
+        serviceCount = new int[lanes];
+        craneUsed = new int[lanes];
+        time_sum = new double[lanes];
+        finished = new boolean[lanes];
+    }
+
+    // 向量宽度小于2时没有加速效果
+    public static boolean isSupported() {
+        return SPECIES.length() >= 2;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    @Override
+    public void evaluate(List<Chromosome> chromosomes) {
+        for (int from = 0; from < chromosomes.size(); from += lanes) {
+            evaluateGroup(chromosomes, from, Math.min(lanes, chromosomes.size() - from));
+        }
+    }
+
+    // 同步模拟chromosomes中从from开始的count个染色体
+    private void evaluateGroup(List<Chromosome> chromosomes, int from, int count) {
+
+        int active = initGroup(chromosomes, from, count);
+
+        int unitTime = 0;// 单位时间
+        int segment = 0;// 当前时间所在的时间表区段
+        while (active > 0) {
+
+            // 1.靠泊和分配岸桥，各染色体的事件不同，逐个处理
+            segment = calendar.advance(segment, unitTime);
+            for (int lane = 0; lane < lanes; lane++) {
+                if (!finished[lane]) {
+                    berthAndAssignCrane(lane, unitTime, segment);
+                }
+            }
+
+            // 2.所有染色体同时更新剩余装箱量
+            for (int i = 0; i < shipNum; i++) {
+                if (servingLanes[i] == 0) {
+                    continue;
+                }
+                int offset = i * lanes;
+                DoubleVector v_speed = DoubleVector.fromArray(SPECIES, speed, offset);
+                DoubleVector v_goods = DoubleVector.fromArray(SPECIES, goodsAmount, offset)
+                        .sub(v_speed);
+                v_goods.intoArray(goodsAmount, offset);
+
+                // 在服务队列中且剩余装箱量 <= 0，说明完成了任务
+                VectorMask<Double> leave = v_speed.compare(VectorOperators.GT, 0)
+                        .and(v_goods.compare(VectorOperators.LE, 0));
+                if (leave.anyTrue()) {
+                    for (int lane = 0; lane < lanes; lane++) {
+                        if (leave.laneIsSet(lane)) {
+                            leave(lane, i, unitTime + 1);
+                        }
+                    }
+                }
+            }
+            unitTime++;
+
+            // 3.等待泊位、等待岸桥、服务队列都为空的染色体模拟完成
+            for (int lane = 0; lane < lanes; lane++) {
+                if (!finished[lane] && order[lane] > shipNum && waitHead[lane] == waitTail[lane]
+                        && serviceCount[lane] == 0) {
+                    finished[lane] = true;
+                    active--;
+
+                    double score = time_sum[lane] / shipNum / 60;
+                    chromosomes.get(from + lane).setScore(1 / score);// 平均在港时间的倒数为适应度函数值
+                }
+            }
+        }
+    }
+
+    // 初始化一组染色体的模拟状态，返回需要模拟的染色体数
+    private int initGroup(List<Chromosome> chromosomes, int from, int count) {
+
+        for (int i = 0; i < shipNum; i++) {
+            servingLanes[i] = 0;
+            for (int lane = 0; lane < lanes; lane++) {
+                goodsAmount[i * lanes + lane] = goodsAmount_init[i] + 0.0;
+                speed[i * lanes + lane] = 0;
+            }
+        }
+
+        for (int lane = 0; lane < lanes; lane++) {
+            if (lane >= count) {
+                finished[lane] = true;// 不足一组时多余的位置不参与模拟
+                continue;
+            }
+            Chromosome chro = chromosomes.get(from + lane);
+            int[] gene_shipOrder = chro.getGene_shipOrder();
+
+            // 顺序编号重复时与Evaluator一致，取下标最小的船舶
+            for (int i = shipNum - 1; i >= 0; i--) {
+                shipOfOrder[lane * shipNum + gene_shipOrder[i] - 1] = i;
+            }
+            for (int b = 0; b < berthNum; b++) {
+                berth_free[lane * berthNum + b] = true;
+            }
+            gene_shipBerth[lane] = chro.getGene_shipBerth();
+            gene_shipCrane[lane] = chro.getGene_shipCrane();
+            order[lane] = 1;
+            waitHead[lane] = 0;
+            waitTail[lane] = 0;
+            serviceCount[lane] = 0;
+            craneUsed[lane] = 0;
+            time_sum[lane] = 0;
+            finished[lane] = false;
+        }
+        return count;
+    }
+
+    // 当前顺序的船舶已到达且泊位空闲、开放时靠泊，然后按先后顺序为等待岸桥的船舶分配岸桥
+    private void berthAndAssignCrane(int lane, int unitTime, int segment) {
+
+        int[] berth = gene_shipBerth[lane];
+        int[] crane = gene_shipCrane[lane];
+
+        if (order[lane] <= shipNum) {
+            int k = shipOfOrder[lane * shipNum + order[lane] - 1];
+            int b = lane * berthNum + berth[k] - 1;
+            if (berth_free[b] && time_arrive[k] <= unitTime && calendar.isBerthOpen(segment, berth[k] - 1)) {
+                berth_free[b] = false;
+                waitCrane[lane * shipNum + waitTail[lane]++] = k;
+                order[lane]++;
+            }
+        }
+
+        while (waitHead[lane] < waitTail[lane]) {
+            int k = waitCrane[lane * shipNum + waitHead[lane]];
+            if (calendar.getCraneCapacity(segment) - craneUsed[lane] < crane[k]) {
+                break;
+            }
+            craneUsed[lane] = craneUsed[lane] + crane[k];
+            waitHead[lane]++;
+            speed[k * lanes + lane] = crane[k] * Evaluator.CRANE_EFFICIENCY;
+            servingLanes[k]++;
+            serviceCount[lane]++;
+        }
+    }
+
+    // 船舶离港，释放岸桥和泊位
+    private void leave(int lane, int ship, int time_leave) {
+        time_sum[lane] = time_sum[lane] + (time_leave - time_arrive[ship]);
+        craneUsed[lane] = craneUsed[lane] - gene_shipCrane[lane][ship];
+        berth_free[lane * berthNum + gene_shipBerth[lane][ship] - 1] = true;
+        speed[ship * lanes + lane] = 0;
+        servingLanes[ship]--;
+        serviceCount[lane]--;
+    }
+}
@@ -0,0 +1,196 @@
+package core.service;
+
+import core.Chromosome;
+import core.Solver;
+
+/**
+ * 优化任务：在求解线程池中运行一个求解器，保存最新的最优解供查询和推送
+ *
+ * 线程池的队列按优先级(大者优先)和提交顺序排序；状态和最优解由本对象加锁保护，每次改进时version加1并唤醒等待的推送线程
+ *
+ */
+class Job implements Runnable, Comparable<Job> {
+
+    enum State {
+        QUEUED, RUNNING, DONE, CANCELLED, FAILED
+    }
+
+    final long id;
+    final int priority;// 优先级，大者优先
+    final long sequence;// 提交顺序，优先级相同时先提交先运行
+    final String solverName;
+    private final Solver solver;
+
+    private State state = State.QUEUED;
+    private boolean cancelRequested;
+    private String error;
+    private int version;// 状态或最优解每变化一次加1
+    private long evaluations;
+    private int[] best_shipOrder;// 最优解的拷贝，求解线程之外只读这些数组
+    private int[] best_shipBerth;
+    private int[] best_shipCrane;
+    private double bestTime;// 最优解的平均在港时间(h)
+
+    final long submitted = System.currentTimeMillis();
+    private long started;
+    private long finished;
+
+    Job(long id, long sequence, int priority, String solverName, Solver solver, double target) {
+        this.id = id;
+        this.sequence = sequence;
+        this.priority = priority;
+        this.solverName = solverName;
+        this.solver = solver;
+        solver.setVerbose(false);
+        solver.setTarget(target);
+        solver.setProgressListener(this::progress);
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (state != State.QUEUED) {
+                return;// 排队时已被取消
+            }
+            state = State.RUNNING;
+            started = System.currentTimeMillis();
+            changed();
+        }
+
+        try {
+            solver.start();
+            synchronized (this) {
+                if (solver.getOptimalChromosome() != null) {
+                    progress(solver.getEvaluations(), solver.getOptimalChromosome());
+                }
+                finish(cancelRequested ? State.CANCELLED : State.DONE, null);
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                finish(State.FAILED, e.toString());
+            }
+        }
+    }
+
+    // 求解线程在最优解改进时调用
+    private synchronized void progress(long evaluations, Chromosome optimal) {
+        this.evaluations = evaluations;
+        best_shipOrder = optimal.getGene_shipOrder().clone();
+        best_shipBerth = optimal.getGene_shipBerth().clone();
+        best_shipCrane = optimal.getGene_shipCrane().clone();
+        bestTime = 1 / optimal.getScore();
+        changed();
+    }
+
+    // 排队中的任务直接结束，运行中的任务通知求解器在当前迭代后结束；已结束的任务返回false
+    synchronized boolean cancel() {
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED, null);
+            return true;
+        }
+        if (state == State.RUNNING) {
+            cancelRequested = true;
+            solver.cancel();
+            return true;
+        }
+        return false;
+    }
+
+    private void finish(State state, String error) {
+        this.state = state;
+        this.error = error;
+        this.finished = System.currentTimeMillis();
+        changed();
+    }
+
+    private void changed() {
+        version++;
+        notifyAll();
+    }
+
+    synchronized boolean isFinished() {
+        return state == State.DONE || state == State.CANCELLED || state == State.FAILED;
+    }
+
+    synchronized long getFinished() {
+        return finished;
+    }
+
+    synchronized int getVersion() {
+        return version;
+    }
+
+    // 等待version变化或任务结束，最多等待timeout毫秒，返回当前version
+    synchronized int awaitChange(int seen, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        long remaining = timeout;
+        while (version == seen && !isFinished() && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return version;
+    }
+
+    // 状态的JSON表示，withPlan为true时包含最优解的基因
+    synchronized String toJson(boolean withPlan) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"id\":").append(id);
+        sb.append(",\"state\":\"").append(state).append('"');
+        sb.append(",\"solver\":\"").append(solverName).append('"');
+        sb.append(",\"priority\":").append(priority);
+        sb.append(",\"version\":").append(version);
+        sb.append(",\"evaluations\":").append(evaluations);
+        if (best_shipOrder != null) {
+            sb.append(",\"best\":").append(bestTime);
+        }
+        if (started > 0) {
+            sb.append(",\"queuedMillis\":").append(started - submitted);
+        }
+        if (finished > 0 && started > 0) {
+            sb.append(",\"runMillis\":").append(finished - started);
+        }
+        if (error != null) {
+            sb.append(",\"error\":\"").append(escape(error)).append('"');
+        }
+        if (withPlan && best_shipOrder != null) {
+            appendArray(sb, "SO", best_shipOrder);
+            appendArray(sb, "SB", best_shipBerth);
+            appendArray(sb, "SC", best_shipCrane);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static void appendArray(StringBuilder sb, String name, int[] array) {
+        sb.append(",\"").append(name).append("\":[");
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(array[i]);
+        }
+        sb.append(']');
+    }
+
+    static String escape(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public int compareTo(Job other) {
+        if (priority != other.priority) {
+            return Integer.compare(other.priority, priority);
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,320 @@
+package core.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import core.GeneticAlgorithm;
+import core.ProblemInstance;
+import core.Solver;
+
+/**
+ * 本机优化服务：常驻一个JVM，通过回环地址上的HTTP接口排队运行求解任务，各任务共用已经预热(JIT编译)的代码
+ *
+ * POST /jobs?solver=ga&seed=1&budget=500&priority=0&target=0 请求体为算例文件格式的文本，返回任务编号；
+ * GET /jobs/{id} 返回任务状态和最优解；GET /jobs/{id}/events 以分块传输逐行推送带基因的最优解，客户端读取较慢时多次改进合并为一行，任务结束后关闭；
+ * DELETE /jobs/{id} 取消任务
+ *
+ * 任务在固定大小的求解线程池中运行，排队时按优先级(大者优先)和提交顺序出队；结束超过RETENTION的任务被清除
+ *
+ * 用法：java -cp bqcap-core.jar core.service.OptimisationService [--port 端口] [--threads 求解线程数] [--warmup 预热代数]
+ *
+ */
+public class OptimisationService {
+
+    public static final int DEFAULT_PORT = 8765;
+    private static final long RETENTION = 3600_000;// 已结束任务的保留时间(ms)
+    private static final long EVENT_TIMEOUT = 15000;// 推送时无变化的最长间隔(ms)，超时后重发当前状态作为心跳
+    private static final int BODY_MAX = 1 << 20;// 请求体大小上限(字节)
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor solverPool;
+    private final ExecutorService httpPool;
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    public OptimisationService(int port, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("求解线程数不能小于1");
+        }
+
+        // 队列元素为Job本身，所以只能用execute提交，submit包装出的FutureTask无法排序
+        AtomicInteger solverCount = new AtomicInteger();
+        solverPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                r -> daemon(r, "bqcap-solver-" + solverCount.incrementAndGet()));
+
+        // 推送连接会长时间占用线程，HTTP请求使用不限大小的线程池
+        AtomicInteger httpCount = new AtomicInteger();
+        httpPool = Executors.newCachedThreadPool(r -> daemon(r, "bqcap-http-" + httpCount.incrementAndGet()));
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/jobs", this::handle);
+        server.setExecutor(httpPool);
+    }
+
+    public static void main(String[] args) {
+
+        int port = DEFAULT_PORT;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int warmup = 50;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value(args, ++i));
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数：" + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("用法：java -cp bqcap-core.jar core.service.OptimisationService [--port 端口]"
+                    + " [--threads 求解线程数] [--warmup 预热代数]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            if (warmup > 0) {
+                long start = System.nanoTime();
+                if (warmup(warmup)) {
+                    System.out.println("预热完成：" + (System.nanoTime() - start) / 1000000 + "ms");
+                }
+            }
+            OptimisationService service = new OptimisationService(port, threads);
+            service.start();
+            System.out.println("优化服务已启动：http://127.0.0.1:" + service.getPort() + "/jobs 求解线程数：" + threads);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // 用默认算例把各求解器各运行一次，使热点代码在接收任务前完成JIT编译；找不到默认算例时警告并跳过，返回是否完成预热
+    public static boolean warmup(int budget) {
+        ProblemInstance instance;
+        try {
+            instance = ProblemInstance.loadDefault();
+        } catch (IOException e) {
+            System.err.println("警告：" + e.getMessage() + "，跳过预热");
+            return false;
+        }
+        for (String name : new String[] { "ga", "sa", "tabu" }) {
+            Solver solver = Solver.create(name, instance, 1, budget);
+            solver.setVerbose(false);
+            solver.start();
+        }
+        return true;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // 停止接收请求并取消所有未结束的任务
+    public void stop() {
+        server.stop(0);
+        for (Job job : jobs.values()) {
+            job.cancel();
+        }
+        solverPool.shutdown();
+        httpPool.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");// ["", "jobs", id, "events"]
+
+            if (path.length == 2 && "POST".equals(method)) {
+                submit(exchange);
+            } else if (path.length == 3 && "GET".equals(method)) {
+                Job job = find(path[2]);
+                send(exchange, job == null ? 404 : 200, job == null ? error("任务不存在") : job.toJson(true));
+            } else if (path.length == 3 && "DELETE".equals(method)) {
+                Job job = find(path[2]);
+                if (job == null) {
+                    send(exchange, 404, error("任务不存在"));
+                } else if (job.cancel()) {
+                    solverPool.remove(job);
+                    send(exchange, 200, job.toJson(false));
+                } else {
+                    send(exchange, 409, error("任务已结束"));
+                }
+            } else if (path.length == 4 && "GET".equals(method) && "events".equals(path[3])) {
+                Job job = find(path[2]);
+                if (job == null) {
+                    send(exchange, 404, error("任务不存在"));
+                } else {
+                    stream(exchange, job);
+                }
+            } else {
+                send(exchange, 404, error("未知的请求：" + method + " " + exchange.getRequestURI().getPath()));
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            // 其他异常也返回状态码，避免不回应直接关闭连接
+            send(exchange, 500, error(e.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // 提交任务：请求体为算例，其余参数在查询串中
+    private void submit(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String solverName = query.getOrDefault("solver", "ga");
+        long seed = query.containsKey("seed") ? Long.parseLong(query.get("seed")) : System.nanoTime();
+        int budget = query.containsKey("budget") ? Integer.parseInt(query.get("budget"))
+                : GeneticAlgorithm.ITERATION_MAX;
+        int priority = query.containsKey("priority") ? Integer.parseInt(query.get("priority")) : 0;
+        double target = query.containsKey("target") ? Double.parseDouble(query.get("target")) : 0;
+
+        String text = new String(readBody(exchange.getRequestBody()), StandardCharsets.UTF_8);
+        ProblemInstance instance = ProblemInstance.parse(new StringReader(text));
+        // 提交时创建求解器，求解器名称错误直接返回而不是在任务运行时失败
+        Solver solver = Solver.create(solverName, instance, seed, budget);
+
+        removeExpired();
+        Job job = new Job(nextId.getAndIncrement(), nextSequence.getAndIncrement(), priority, solverName, solver,
+                target);
+        jobs.put(job.id, job);
+        solverPool.execute(job);
+        send(exchange, 201, job.toJson(false));
+    }
+
+    // 逐行推送任务状态，任务结束后发送最终状态并关闭
+    // 每行是推送时的最新状态，写出期间发生的多次改进合并为一行(version可能跳跃)；version变化时带最优解的基因，心跳行不带
+    private void stream(HttpExchange exchange, Job job) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+
+        int seen = -1;
+        try {
+            while (true) {
+                boolean finished = job.isFinished();
+                int version = job.getVersion();
+                if (version != seen || !finished) {
+                    out.write((job.toJson(version != seen || finished) + "\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    seen = version;
+                }
+                if (finished) {
+                    break;
+                }
+                job.awaitChange(seen, EVENT_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 客户端断开连接，任务继续运行
+        }
+    }
+
+    private Job find(String id) {
+        try {
+            return jobs.get(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Job> it = jobs.values().iterator(); it.hasNext();) {
+            Job job = it.next();
+            if (job.isFinished() && now - job.getFinished() > RETENTION) {
+                it.remove();
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + Job.escape(String.valueOf(message)) + "\"}";
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) > 0) {
+            buffer.write(chunk, 0, n);
+            if (buffer.size() > BODY_MAX) {
+                throw new IOException("算例超过 " + BODY_MAX + " 字节");
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> map = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return map;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                map.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return map;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("参数 " + args[i - 1] + " 缺少取值");
+        }
+        return args[i];
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,142 @@
+package core.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 优化服务(OptimisationService)的本机客户端
+ *
+ * 用法：java -cp bqcap-core.jar core.service.ServiceClient [--port 端口] 命令
+ * submit 算例文件 [查询参数，如 solver=sa&budget=500&priority=1]：提交任务并输出任务编号
+ * status 任务编号：输出任务状态和最优解
+ * watch 任务编号：逐行输出最优解的改进，直到任务结束
+ * cancel 任务编号：取消任务
+ *
+ */
+public class ServiceClient {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final String base;
+
+    public ServiceClient(int port) {
+        this.base = "http://127.0.0.1:" + port + "/jobs";
+    }
+
+    public static void main(String[] args) {
+
+        int port = OptimisationService.DEFAULT_PORT;
+        int i = 0;
+        if (args.length > 1 && "--port".equals(args[0])) {
+            port = Integer.parseInt(args[1]);
+            i = 2;
+        }
+        if (args.length < i + 2) {
+            System.err.println("用法：java -cp bqcap-core.jar core.service.ServiceClient [--port 端口]"
+                    + " submit 算例文件 [查询参数] | status 任务编号 | watch 任务编号 | cancel 任务编号");
+            System.exit(2);
+            return;
+        }
+
+        ServiceClient client = new ServiceClient(port);
+        try {
+            switch (args[i]) {
+            case "submit":
+                String text = new String(Files.readAllBytes(Paths.get(args[i + 1])), StandardCharsets.UTF_8);
+                System.out.println(client.submit(text, args.length > i + 2 ? args[i + 2] : ""));
+                break;
+            case "status":
+                System.out.println(client.status(Long.parseLong(args[i + 1])));
+                break;
+            case "watch":
+                client.watch(Long.parseLong(args[i + 1]), System.out::println);
+                break;
+            case "cancel":
+                System.out.println(client.cancel(Long.parseLong(args[i + 1])));
+                break;
+            default:
+                System.err.println("未知命令：" + args[i]);
+                System.exit(2);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    // 提交任务，query为查询参数(不含'?')，返回任务编号
+    public long submit(String instanceText, String query) throws IOException, InterruptedException {
+        String uri = query == null || query.isEmpty() ? base : base + "?" + query;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                .POST(HttpRequest.BodyPublishers.ofString(instanceText, StandardCharsets.UTF_8)).build();
+        String json = check(client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)));
+        return Long.parseLong(field(json, "id"));
+    }
+
+    // 任务状态的JSON
+    public String status(long id) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/" + id)).GET().build();
+        return check(client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)));
+    }
+
+    // 取消任务，任务已结束时返回false
+    public boolean cancel(long id) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/" + id)).DELETE().build();
+        HttpResponse<String> response = client.send(request,
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() == 409) {
+            return false;
+        }
+        check(response);
+        return true;
+    }
+
+    // 逐行接收推送的任务状态，任务结束后返回最后一行
+    public String watch(long id, Consumer<String> listener) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/" + id + "/events")).GET().build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                throw new IOException("请求失败(" + response.statusCode() + ")：" + reader.readLine());
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                listener.accept(line);
+                last = line;
+            }
+        }
+        return last;
+    }
+
+    private static String check(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("请求失败(" + response.statusCode() + ")：" + response.body());
+        }
+        return response.body();
+    }
+
+    // 取出JSON中数值或字符串字段的值，字段不存在时返回null；服务返回的JSON只有一层，不需要完整的解析器
+    public static String field(String json, String name) {
+        Matcher m = Pattern.compile("\"" + Pattern.quote(name) + "\":(\"([^\"]*)\"|[-0-9.Ee+]+)").matcher(json);
+        if (!m.find()) {
+            return null;
+        }
+        return m.group(2) != null ? m.group(2) : m.group(1);
+    }
+}
@@ -0,0 +1,81 @@
+package core.worker;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import core.Chromosome;
+import core.PopulationEvaluator;
+import core.ProblemInstance;
+
+/**
+ * 计算进程：由WorkerPoolEvaluator启动，连接协调进程后加载一次算例，然后循环计算收到的批次，连接关闭时退出
+ *
+ * 用法：java -cp ... core.worker.EvaluationWorker unix:套接字文件|tcp:端口 进程编号
+ *
+ */
+public class EvaluationWorker {
+
+    public static void main(String[] args) throws IOException {
+
+        try (SocketChannel channel = SocketChannel.open(parseAddress(args[0]))) {
+
+            // 1.报告进程编号
+            ByteBuffer hello = WorkerProtocol.allocate(WorkerProtocol.TYPE_HELLO, 4);
+            hello.putInt(Integer.parseInt(args[1]));
+            WorkerProtocol.send(channel, hello);
+
+            // 2.加载算例
+            WorkerProtocol.Frame frame = WorkerProtocol.receive(channel);
+            if (frame.type != WorkerProtocol.TYPE_INSTANCE) {
+                throw new IOException("第一帧应为算例，收到类型：" + frame.type);
+            }
+            String text = StandardCharsets.UTF_8.decode(frame.payload).toString();
+            PopulationEvaluator evaluator = PopulationEvaluator.create(ProblemInstance.parse(new StringReader(text)));
+
+            // 3.循环计算批次
+            while (true) {
+                try {
+                    frame = WorkerProtocol.receive(channel);
+                } catch (EOFException e) {
+                    return;// 协调进程关闭连接
+                }
+                if (frame.type != WorkerProtocol.TYPE_BATCH) {
+                    throw new IOException("未知的帧类型：" + frame.type);
+                }
+
+                int batchId = frame.payload.getInt();
+                List<Chromosome> chromosomes = Arrays.asList(WorkerProtocol.decodeBatch(frame.payload));
+                evaluator.evaluate(chromosomes);
+
+                ByteBuffer scores = WorkerProtocol.allocate(WorkerProtocol.TYPE_SCORES, 8 + chromosomes.size() * 8);
+                scores.putInt(batchId);
+                scores.putInt(chromosomes.size());
+                for (Chromosome chro : chromosomes) {
+                    scores.putDouble(chro.getScore());
+                }
+                WorkerProtocol.send(channel, scores);
+            }
+        }
+    }
+
+    static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(address.substring("unix:".length()));
+        }
+        if (address.startsWith("tcp:")) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(address.substring("tcp:".length())));
+        }
+        throw new IllegalArgumentException("地址格式错误：" + address);
+    }
+}
@@ -0,0 +1,399 @@
+package core.worker;
+
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import core.Chromosome;
+import core.Evaluator;
+import core.PopulationEvaluator;
+import core.ProblemInstance;
+
+/**
+ * 多进程适应度计算：在本机启动若干个计算进程(EvaluationWorker)，通过Unix域套接字(不支持时用TCP回环地址)分批发送染色体
+ *
+ * 每个计算进程最多同时有IN_FLIGHT_MAX个批次未返回，计算当前批次时下一批已在套接字缓冲区中；
+ * 计算进程崩溃或连接断开时，其未返回的批次重新分配给其他进程，并重启一个新进程代替；
+ * 所有计算进程都不可用时在本进程内计算剩余批次
+ *
+ */
+public class WorkerPoolEvaluator implements PopulationEvaluator {
+
+    private static final int BATCH_SIZE = 64;// 每批的染色体数
+    private static final int IN_FLIGHT_MAX = 2;// 每个计算进程同时未返回的批次数上限
+    private static final long CONNECT_TIMEOUT = 30000;// 等待计算进程连接的超时时间(ms)
+
+    private final ProblemInstance instance;
+    private final int restartMax;// 计算进程失效后的重启次数上限
+    private final Path socketFile;// Unix域套接字文件，使用TCP回环地址时为null
+    private final String address;// 传给计算进程的地址参数
+    private final ServerSocketChannel server;
+    private final List<Worker> workers = new ArrayList<>();
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();// 各计算进程返回的结果和失效通知
+    private final Evaluator local;// 所有计算进程都不可用时在本进程内计算
+
+    private int nextWorkerId;
+    private int nextBatchId;
+    private int restarts;
+
+    // 计算进程
+    private static class Worker {
+        final int id;
+        final Process process;
+        SocketChannel channel;
+        boolean alive;
+        final Map<Integer, Batch> inFlight = new HashMap<>();// 已发送未返回的批次
+
+        Worker(int id, Process process) {
+            this.id = id;
+            this.process = process;
+        }
+    }
+
+    // 一批染色体在种群中的位置[from, to)
+    private static class Batch {
+        final int id;
+        final int from;
+        final int to;
+
+        Batch(int id, int from, int to) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    // 计算进程返回的结果，scores为null表示该进程失效
+    private static class Event {
+        final Worker worker;
+        final int batchId;
+        final double[] scores;
+
+        Event(Worker worker, int batchId, double[] scores) {
+            this.worker = worker;
+            this.batchId = batchId;
+            this.scores = scores;
+        }
+    }
+
+    public WorkerPoolEvaluator(ProblemInstance instance, int workerNum) throws IOException {
+        if (workerNum < 1) {
+            throw new IllegalArgumentException("计算进程数不能小于1");
+        }
+        checkRange(instance);
+        this.instance = instance;
+        this.restartMax = workerNum * 2;
+        this.local = new Evaluator(instance);
+
+        ServerSocketChannel channel;
+        Path file;
+        try {
+            channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } catch (UnsupportedOperationException e) {
+            channel = null;
+        }
+        if (channel != null) {
+            // 确认支持Unix域套接字后才创建临时目录，退回TCP时不留下空目录；绑定失败时删除目录
+            Path directory = null;
+            try {
+                directory = Files.createTempDirectory("bqcap");
+                file = directory.resolve("pool.sock");
+                channel.bind(UnixDomainSocketAddress.of(file));
+            } catch (IOException e) {
+                channel.close();
+                if (directory != null) {
+                    Files.deleteIfExists(directory);
+                }
+                throw e;
+            }
+        } else {
+            file = null;
+            channel = ServerSocketChannel.open();
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        }
+        this.server = channel;
+        this.socketFile = file;
+        this.address = file != null ? "unix:" + file
+                : "tcp:" + ((InetSocketAddress) channel.getLocalAddress()).getPort();
+
+        try {
+            startWorkers(workerNum);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        if (workers.isEmpty()) {
+            close();
+            throw new IOException("没有计算进程在 " + CONNECT_TIMEOUT + "ms 内连接");
+        }
+    }
+
+    // 基因值超出BATCH帧编码的范围时会被截断，计算进程得到错误的染色体，启动前检查
+    private static void checkRange(ProblemInstance instance) {
+        if (instance.getShipNum() > WorkerProtocol.SHIP_NUM_MAX) {
+            throw new IllegalArgumentException(
+                    "船舶数 " + instance.getShipNum() + " 超过计算进程支持的上限 " + WorkerProtocol.SHIP_NUM_MAX);
+        }
+        if (instance.getBerthNum() > WorkerProtocol.BERTH_NUM_MAX) {
+            throw new IllegalArgumentException(
+                    "泊位数 " + instance.getBerthNum() + " 超过计算进程支持的上限 " + WorkerProtocol.BERTH_NUM_MAX);
+        }
+        for (int i = 0; i < instance.getShipNum(); i++) {
+            if (instance.getCraneMax()[i] > WorkerProtocol.CRANE_MAX_MAX) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 艘船的最大可接受岸桥数 " + instance.getCraneMax()[i]
+                        + " 超过计算进程支持的上限 " + WorkerProtocol.CRANE_MAX_MAX);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void evaluate(List<Chromosome> chromosomes) {
+
+        Deque<Batch> pending = new ArrayDeque<>();// 待发送的批次
+        for (int from = 0; from < chromosomes.size(); from += BATCH_SIZE) {
+            pending.add(new Batch(nextBatchId++, from, Math.min(from + BATCH_SIZE, chromosomes.size())));
+        }
+        int remaining = pending.size();// 未完成的批次数
+
+        while (remaining > 0) {
+
+            dispatch(chromosomes, pending);
+            if (workers.isEmpty()) {
+                // 所有计算进程都不可用，失效进程的批次已回到pending中
+                for (Batch batch : pending) {
+                    local.evaluate(chromosomes.subList(batch.from, batch.to));
+                }
+                return;
+            }
+            if (!anyInFlight()) {
+                continue;// 刚重启的计算进程还未分配批次
+            }
+
+            Event event = take();
+            if (event.scores == null) {
+                fail(event.worker, pending);
+            } else {
+                Batch batch = event.worker.inFlight.remove(event.batchId);
+                if (batch != null) {
+                    for (int i = batch.from; i < batch.to; i++) {
+                        chromosomes.get(i).setScore(event.scores[i - batch.from]);
+                    }
+                    remaining--;
+                }
+            }
+        }
+    }
+
+    public synchronized int getWorkerNum() {
+        return workers.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Worker worker : workers) {
+            closeWorker(worker);
+        }
+        workers.clear();
+        try {
+            server.close();
+            if (socketFile != null) {
+                Files.deleteIfExists(socketFile);
+                Files.deleteIfExists(socketFile.getParent());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // 向未满的计算进程发送待计算的批次
+    private void dispatch(List<Chromosome> chromosomes, Deque<Batch> pending) {
+        for (Worker worker : new ArrayList<>(workers)) {
+            while (worker.alive && worker.inFlight.size() < IN_FLIGHT_MAX && !pending.isEmpty()) {
+                Batch batch = pending.poll();
+                worker.inFlight.put(batch.id, batch);
+                try {
+                    WorkerProtocol.send(worker.channel, WorkerProtocol.encodeBatch(batch.id, chromosomes, batch.from,
+                            batch.to, instance.getShipNum()));
+                } catch (IOException e) {
+                    fail(worker, pending);
+                }
+            }
+        }
+    }
+
+    // 计算进程失效：回收其未返回的批次，并尝试重启一个新进程
+    private void fail(Worker worker, Deque<Batch> pending) {
+        if (!worker.alive) {
+            return;
+        }
+        System.err.println("计算进程 " + worker.id + " 失效，重新分配 " + worker.inFlight.size() + " 个批次");
+
+        worker.alive = false;
+        for (Batch batch : worker.inFlight.values()) {
+            pending.addFirst(batch);
+        }
+        worker.inFlight.clear();
+        closeWorker(worker);
+        workers.remove(worker);
+
+        if (restarts < restartMax) {
+            restarts++;
+            try {
+                startWorkers(1);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private boolean anyInFlight() {
+        for (Worker worker : workers) {
+            if (!worker.inFlight.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Event take() {
+        try {
+            return events.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待计算结果时被中断", e);
+        }
+    }
+
+    // 启动count个计算进程并等待连接，超时未连接的进程被终止
+    private void startWorkers(int count) throws IOException {
+
+        Map<Integer, Worker> starting = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int id = nextWorkerId++;
+            starting.put(id, new Worker(id, launch(id)));
+        }
+
+        byte[] text = instance.format().getBytes(StandardCharsets.UTF_8);
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+
+        server.configureBlocking(false);
+        try (Selector selector = Selector.open()) {
+            server.register(selector, SelectionKey.OP_ACCEPT);
+
+            while (!starting.isEmpty() && System.currentTimeMillis() < deadline && anyAlive(starting)) {
+                selector.select(Math.max(1, Math.min(1000, deadline - System.currentTimeMillis())));
+                selector.selectedKeys().clear();
+
+                SocketChannel channel = server.accept();
+                if (channel == null) {
+                    continue;
+                }
+                channel.configureBlocking(true);
+
+                // 计算进程连接后先报告自己的编号，再接收算例
+                WorkerProtocol.Frame hello = WorkerProtocol.receive(channel);
+                Worker worker = hello.type == WorkerProtocol.TYPE_HELLO ? starting.remove(hello.payload.getInt()) : null;
+                if (worker == null) {
+                    channel.close();
+                    continue;
+                }
+
+                ByteBuffer frame = WorkerProtocol.allocate(WorkerProtocol.TYPE_INSTANCE, text.length);
+                frame.put(text);
+                WorkerProtocol.send(channel, frame);
+
+                worker.channel = channel;
+                worker.alive = true;
+                workers.add(worker);
+                startReader(worker);
+            }
+        } finally {
+            server.configureBlocking(true);
+            for (Worker worker : starting.values()) {
+                System.err.println("计算进程 " + worker.id + " 未能连接");
+                worker.process.destroyForcibly();
+            }
+        }
+    }
+
+    private static boolean anyAlive(Map<Integer, Worker> starting) {
+        for (Worker worker : starting.values()) {
+            if (worker.process.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 启动计算进程，沿用当前JVM的类路径和向量化模块设置
+    private Process launch(int id) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            command.add("--add-modules");
+            command.add("jdk.incubator.vector");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(EvaluationWorker.class.getName());
+        command.add(address);
+        command.add(String.valueOf(id));
+
+        return new ProcessBuilder(command).redirectOutput(Redirect.DISCARD).redirectError(Redirect.INHERIT).start();
+    }
+
+    // 每个计算进程一个读线程，把返回的结果放入events
+    private void startReader(Worker worker) {
+        Thread reader = new Thread(() -> {
+            try {
+                while (true) {
+                    WorkerProtocol.Frame frame = WorkerProtocol.receive(worker.channel);
+                    if (frame.type != WorkerProtocol.TYPE_SCORES) {
+                        throw new IOException("未知的帧类型：" + frame.type);
+                    }
+                    int batchId = frame.payload.getInt();
+                    double[] scores = new double[frame.payload.getInt()];
+                    for (int i = 0; i < scores.length; i++) {
+                        scores[i] = frame.payload.getDouble();
+                    }
+                    events.add(new Event(worker, batchId, scores));
+                }
+            } catch (IOException e) {
+                events.add(new Event(worker, -1, null));
+            }
+        }, "bqcap-worker-" + worker.id);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private static void closeWorker(Worker worker) {
+        try {
+            if (worker.channel != null) {
+                worker.channel.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        worker.process.destroy();
+    }
+}
@@ -0,0 +1,130 @@
+package core.worker;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+import core.Chromosome;
+
+/**
+ * 协调进程与计算进程之间的二进制帧格式
+ *
+ * 每帧为 int 帧长(不含自身) + byte 类型 + 负载：
+ * HELLO    计算进程 -> 协调进程  int 进程编号
+ * INSTANCE 协调进程 -> 计算进程  UTF-8编码的算例文本(ProblemInstance.format)
+ * BATCH    协调进程 -> 计算进程  int 批次编号, int 染色体数, int 船舶数, 每个染色体依次为 short[] SO, byte[] SB, byte[] SC
+ * SCORES   计算进程 -> 协调进程  int 批次编号, int 染色体数, double[] 适应度值
+ *
+ */
+final class WorkerProtocol {
+
+    static final byte TYPE_HELLO = 1;
+    static final byte TYPE_INSTANCE = 2;
+    static final byte TYPE_BATCH = 3;
+    static final byte TYPE_SCORES = 4;
+
+    private static final int FRAME_MAX = 64 * 1024 * 1024;// 帧长上限，超过视为数据错误
+
+    // BATCH帧中SO按short、SB和SC按byte(有符号)编码，算例超出范围时不能使用计算进程
+    static final int SHIP_NUM_MAX = Short.MAX_VALUE;// 最大船舶数
+    static final int BERTH_NUM_MAX = Byte.MAX_VALUE;// 最大泊位数
+    static final int CRANE_MAX_MAX = Byte.MAX_VALUE;// 单艘船舶最大可接受岸桥数的上限
+
+    private WorkerProtocol() {
+    }
+
+    // 收到的一帧
+    static class Frame {
+        final byte type;
+        final ByteBuffer payload;
+
+        Frame(byte type, ByteBuffer payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    // 分配一帧的缓冲区，写满负载后调用send发送
+    static ByteBuffer allocate(byte type, int payloadLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + payloadLength);
+        buffer.putInt(1 + payloadLength);
+        buffer.put(type);
+        return buffer;
+    }
+
+    static void send(SocketChannel channel, ByteBuffer frame) throws IOException {
+        frame.flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    // 读取一帧，连接关闭时抛出EOFException
+    static Frame receive(SocketChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(channel, header);
+        int length = header.getInt();
+        byte type = header.get();
+        if (length < 1 || length > FRAME_MAX) {
+            throw new IOException("帧长错误：" + length);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length - 1);
+        readFully(channel, payload);
+        return new Frame(type, payload);
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    }
+
+    // 把chromosomes中[from, to)的染色体打包为一个BATCH帧
+    static ByteBuffer encodeBatch(int batchId, List<Chromosome> chromosomes, int from, int to, int shipNum) {
+        ByteBuffer frame = allocate(TYPE_BATCH, 12 + (to - from) * shipNum * 4);
+        frame.putInt(batchId);
+        frame.putInt(to - from);
+        frame.putInt(shipNum);
+        for (int c = from; c < to; c++) {
+            Chromosome chro = chromosomes.get(c);
+            for (int value : chro.getGene_shipOrder()) {
+                frame.putShort((short) value);
+            }
+            for (int value : chro.getGene_shipBerth()) {
+                frame.put((byte) value);
+            }
+            for (int value : chro.getGene_shipCrane()) {
+                frame.put((byte) value);
+            }
+        }
+        return frame;
+    }
+
+    // 解包BATCH帧的染色体部分，payload的位置应在批次编号之后
+    static Chromosome[] decodeBatch(ByteBuffer payload) {
+        int count = payload.getInt();
+        int shipNum = payload.getInt();
+        Chromosome[] chromosomes = new Chromosome[count];
+        for (int c = 0; c < count; c++) {
+            int[] gene_shipOrder = new int[shipNum];
+            int[] gene_shipBerth = new int[shipNum];
+            int[] gene_shipCrane = new int[shipNum];
+            for (int i = 0; i < shipNum; i++) {
+                gene_shipOrder[i] = payload.getShort();
+            }
+            for (int i = 0; i < shipNum; i++) {
+                gene_shipBerth[i] = payload.get();
+            }
+            for (int i = 0; i < shipNum; i++) {
+                gene_shipCrane[i] = payload.get();
+            }
+            chromosomes[c] = new Chromosome(gene_shipOrder, gene_shipBerth, gene_shipCrane);
+        }
+        return chromosomes;
+    }
+}